@@ -0,0 +1,243 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+/**
+ * Micro-benchmarks for the game engine: per-call latency of the move and result checks,
+ * make/unmake cost, full random-game playout throughput, AI move-selection latency and
+ * batch position analysis throughput.
+ * Every fixture is built from a fixed seed so runs can be compared with each other.
+ * Each benchmark runs a few timed warm-up rounds so the JIT has compiled the code,
+ * then reports the mean and spread of the measured rounds.
+ */
+public class Benchmarks {
+
+    private static final long SEED = 20_240_601L;  // Seed for every fixture
+    private static final int FIXTURES = 1024;       // Positions per fixture set (a power of two)
+    private static final int MASK = FIXTURES - 1;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final long ROUND_NANOS = 200_000_000L; // Length of one round
+    private static final int BATCH = 10_000;        // Operations per timed call
+
+    /**
+     * One benchmark body. It performs a number of operations and returns a value
+     * derived from their results so the JIT cannot remove the work.
+     */
+    private interface Workload {
+        long run(int ops);
+    }
+
+    private static long sink; // Results of every workload end up here
+
+    // Fixtures, all built from SEED
+    private static final Game[] games = new Game[FIXTURES];       // Classic games in progress
+    private static final Board[] boards = new Board[FIXTURES];    // Reachable 3x3 positions, some finished
+    private static final Game[] bigGames = new Game[FIXTURES];    // 15x15 five-in-a-row games in progress
+    private static final int[] moveRows = new int[FIXTURES];      // Proposed moves for the classic games
+    private static final int[] moveCols = new int[FIXTURES];
+    private static final int[] freeCells = new int[FIXTURES];     // An empty cell in each classic game
+    private static final int[] bigLastRows = new int[FIXTURES];   // Last move played in each big game
+    private static final int[] bigLastCols = new int[FIXTURES];
+    private static final byte[] boardLines = new byte[BATCH * (Board.CELLS + 1)]; // The boards as text, one per line
+
+    /**
+     * Runs every benchmark, or only those whose name contains the first argument.
+     *
+     * @param args Optional name filter.
+     */
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        buildFixtures();
+
+        Simulation randomVsRandom = new Simulation(new RandomPlayer(), new RandomPlayer(),
+                Board.ROWS, Board.COLS, Board.WIN_LENGTH);
+        Game playout = new Game();
+        SplittableRandom playoutRandom = new SplittableRandom(SEED);
+        PositionAnalyzer analyzer = new PositionAnalyzer(1);
+
+        System.out.printf("%-28s %12s %10s %16s%n", "Benchmark", "ns/op", "+/-", "ops/s");
+        run(filter, "isValidMove", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                int f = i & MASK;
+                sum += games[f].isValidMove(moveRows[f], moveCols[f]) ? 1 : 0;
+            }
+            return sum;
+        });
+        run(filter, "isWin", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += boards[i & MASK].isWin(Board.X) ? 1 : 0;
+            }
+            return sum;
+        });
+        run(filter, "isWinningMove.15x15", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                int f = i & MASK;
+                sum += bigGames[f].board().isWinningMove(bigLastRows[f], bigLastCols[f]) ? 1 : 0;
+            }
+            return sum;
+        });
+        run(filter, "isTie", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += games[i & MASK].isTie() ? 1 : 0;
+            }
+            return sum;
+        });
+        run(filter, "playUndo", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                int f = i & MASK;
+                Game game = games[f];
+                game.play(freeCells[f] / Board.COLS, freeCells[f] % Board.COLS);
+                sum += game.hash();
+                game.undo();
+            }
+            return sum;
+        });
+        run(filter, "clearBoard", ops -> {
+            for (int i = 0; i < ops; i++) {
+                playout.reset();
+            }
+            return playout.turnCount();
+        });
+        run(filter, "playout.random", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += randomVsRandom.playOne(playout, playoutRandom).ordinal();
+            }
+            return sum;
+        });
+        run(filter, "bestMove.outcomeTable", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += OutcomeTable.bestMove((Board) games[i & MASK].board());
+            }
+            return sum;
+        });
+        run(filter, "bestMove.minimax", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += Minimax.bestMove((Board) games[i & MASK].board());
+            }
+            return sum;
+        });
+
+        run(filter, "analyze.stream", ops -> {
+            try {
+                analyzer.analyze(new ByteArrayInputStream(boardLines, 0, ops * (Board.CELLS + 1)),
+                        OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return analyzer.positions();
+        });
+
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * Builds every fixture from SEED.
+     */
+    private static void buildFixtures() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        RandomPlayer player = new RandomPlayer();
+        for (int f = 0; f < FIXTURES; f++) {
+            // A classic game stopped after 0-8 random moves, still in progress
+            Game game;
+            do {
+                game = new Game();
+                int plies = random.nextInt(Board.CELLS);
+                while (game.status() == Game.Status.IN_PROGRESS && game.turnCount() < plies) {
+                    int cell = player.chooseMove(game, random);
+                    game.play(cell / Board.COLS, cell % Board.COLS);
+                }
+            } while (game.status() != Game.Status.IN_PROGRESS);
+            games[f] = game;
+            for (int cell = Board.CELLS - 1; cell >= 0; cell--) {
+                if (game.board().isEmpty(cell / Board.COLS, cell % Board.COLS)) {
+                    freeCells[f] = cell;
+                }
+            }
+            moveRows[f] = random.nextInt(Board.ROWS);
+            moveCols[f] = random.nextInt(Board.COLS);
+
+            // A random 3x3 position that may be finished
+            Game finished = new Game();
+            int plies = 5 + random.nextInt(Board.CELLS - 4);
+            while (finished.status() == Game.Status.IN_PROGRESS && finished.turnCount() < plies) {
+                int cell = player.chooseMove(finished, random);
+                finished.play(cell / Board.COLS, cell % Board.COLS);
+            }
+            boards[f] = (Board) finished.board();
+
+            // A 15x15 five-in-a-row game after 20-80 random moves
+            Game big = new Game(15, 15, 5);
+            int bigPlies = 20 + random.nextInt(61);
+            while (big.status() == Game.Status.IN_PROGRESS && big.turnCount() < bigPlies) {
+                int cell = player.chooseMove(big, random);
+                bigLastRows[f] = cell / 15;
+                bigLastCols[f] = cell % 15;
+                big.play(bigLastRows[f], bigLastCols[f]);
+            }
+            bigGames[f] = big;
+        }
+        for (int line = 0; line < BATCH; line++) {
+            Board board = boards[line & MASK];
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                boardLines[line * (Board.CELLS + 1) + cell] = (byte) Board.symbol(board.get(cell)).charAt(0);
+            }
+            boardLines[line * (Board.CELLS + 1) + Board.CELLS] = '\n';
+        }
+    }
+
+    /**
+     * Warms up and measures one benchmark, then prints its result.
+     *
+     * @param filter   Only run benchmarks whose name contains this.
+     * @param name     The benchmark name.
+     * @param workload The benchmark body.
+     */
+    private static void run(String filter, String name, Workload workload) {
+        if (!name.contains(filter)) {
+            return;
+        }
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            round(workload);
+        }
+        double[] nanosPerOp = new double[MEASURED_ROUNDS];
+        double mean = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            nanosPerOp[round] = round(workload);
+            mean += nanosPerOp[round] / MEASURED_ROUNDS;
+        }
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean) / (MEASURED_ROUNDS - 1);
+        }
+        System.out.printf("%-28s %12.2f %10.2f %16.0f%n", name, mean, Math.sqrt(variance), 1e9 / mean);
+    }
+
+    /**
+     * Calls a workload in batches for about ROUND_NANOS.
+     *
+     * @param workload The benchmark body.
+     * @return The average time of one operation in nanoseconds.
+     */
+    private static double round(Workload workload) {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += workload.run(BATCH);
+            ops += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        return (double) elapsed / ops;
+    }
+}
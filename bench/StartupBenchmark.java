@@ -0,0 +1,105 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how long the console game takes from process launch to its first prompt,
+ * which is what a script that starts the game over and over waits for. Each run starts
+ * a fresh JVM running TicTacToe, reads its output until "Enter row" appears and then
+ * kills it. The plain launch is measured, and the AppCDS launch as well when a class
+ * data archive is given (see the cds profile in pom.xml).
+ */
+public class StartupBenchmark {
+
+    private static final String USAGE = "Usage: java StartupBenchmark [--runs N] [--cp CLASSPATH] [--archive FILE]";
+    private static final byte[] FIRST_PROMPT = "Enter row".getBytes(StandardCharsets.US_ASCII);
+    private static final int WARMUP_RUNS = 3; // Fill the OS file cache first
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional settings, see USAGE.
+     * @throws IOException          if the game cannot be started.
+     * @throws InterruptedException if interrupted while waiting for a run to end.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = 20;
+        String classpath = System.getProperty("java.class.path");
+        String archive = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--runs":
+                        runs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cp":
+                        classpath = args[++i];
+                        break;
+                    case "--archive":
+                        archive = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        System.out.printf("%-28s %10s %10s %10s%n", "Launch", "mean ms", "min ms", "max ms");
+        measure("default", runs, java, "-cp", classpath, "TicTacToe");
+        if (archive != null && new File(archive).isFile()) {
+            measure("appcds", runs, java, "-XX:SharedArchiveFile=" + archive, "-XX:TieredStopAtLevel=1",
+                    "-cp", classpath, "TicTacToe");
+        } else if (archive != null) {
+            System.out.println("No class data archive at " + archive + "; build it with mvn -Pcds package");
+        }
+    }
+
+    /**
+     * Times one launch command and prints the result.
+     */
+    private static void measure(String name, int runs, String... command) throws IOException, InterruptedException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            timeToFirstPrompt(command);
+        }
+        double[] millis = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstPrompt(command) / 1e6;
+        }
+        Arrays.sort(millis);
+        double mean = Arrays.stream(millis).average().orElse(0);
+        System.out.printf("%-28s %10.1f %10.1f %10.1f%n", name, mean, millis[0], millis[runs - 1]);
+    }
+
+    /**
+     * Starts the game once and waits for its first prompt.
+     *
+     * @return Nanoseconds from starting the process to reading the prompt.
+     */
+    private static long timeToFirstPrompt(String... command) throws IOException, InterruptedException {
+        List<String> line = new ArrayList<>(Arrays.asList(command));
+        ProcessBuilder builder = new ProcessBuilder(line).redirectErrorStream(true);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try (InputStream out = process.getInputStream()) {
+            int matched = 0;
+            int b;
+            while ((b = out.read()) >= 0) {
+                matched = b == FIRST_PROMPT[matched] ? matched + 1 : (b == FIRST_PROMPT[0] ? 1 : 0);
+                if (matched == FIRST_PROMPT.length) {
+                    return System.nanoTime() - start;
+                }
+            }
+            throw new IllegalStateException("The game exited before prompting, exit code " + process.waitFor());
+        } finally {
+            process.destroyForcibly();
+            process.waitFor();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+#!/bin/sh
+# Starts the console game as quickly as the JVM allows.
+# Build the jar and class data archive first with: mvn -B -Pcds package
+#   -XX:SharedArchiveFile  maps the pre-parsed classes from the archive instead of loading them
+#   -Xshare:auto           falls back to normal class loading if the archive is missing or stale
+#   -XX:TieredStopAtLevel=1 uses only the quick C1 compiler; a console game never needs C2
+#   -XX:+UseSerialGC       the smallest heap setup, enough for a game that allocates almost nothing
+# Any arguments are passed on to TicTacToe, e.g. --computer O or --script FILE.
+dir=$(cd "$(dirname "$0")/.." && pwd)
+exec java -XX:SharedArchiveFile="$dir/target/cds/tictactoe.jsa" -Xshare:auto \
+    -XX:TieredStopAtLevel=1 -XX:+UseSerialGC \
+    -cp "$dir/target/cds/tic-tac-toe-1.0-SNAPSHOT.jar" TicTacToe "$@"
@@ -0,0 +1,404 @@
+/**
+ * Bitboard representation of a 3x3 Tic Tac Toe board.
+ * Each player's marks are kept in their own int, where bit (row * COLS + col)
+ * is set when that player occupies the cell. Moves, undos, occupancy tests and
+ * win checks are all a handful of bit operations instead of String compares.
+ * Win and game-over tests are table lookups: one table maps each of the 512 occupancy
+ * masks to the cells on its completed lines, and another maps each of the 3^9 position
+ * keys to the state of the game. Both are built when the class loads, in well under a
+ * millisecond.
+ * This is the classic 3x3, three-in-a-row GameBoard; see MnkBoard for other sizes.
+ */
+public class Board implements GameBoard {
+
+    public static final int ROWS = 3; // Number of rows on the board
+    public static final int COLS = 3; // Number of columns on the board
+    public static final int WIN_LENGTH = 3; // Marks in a row needed to win
+    public static final int CELLS = ROWS * COLS; // Total number of cells
+    public static final int FULL = (1 << CELLS) - 1; // Mask with every cell set
+
+    // Player identifiers. EMPTY doubles as the "no player" value for cells.
+    public static final int EMPTY = 0;
+    public static final int X = 1;
+    public static final int O = 2;
+
+    // Every winning line as a 9-bit mask: three rows, three columns and two diagonals.
+    private static final int[] LINES = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000, // rows
+            0b001_001_001, 0b010_010_010, 0b100_100_100, // columns
+            0b100_010_001, 0b001_010_100                 // diagonals
+    };
+
+    // Powers of three, used to give every position a unique base-3 key (0 = empty, 1 = X, 2 = O)
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+    public static final int KEYS = 19683; // 3^9, the number of distinct keys
+
+    // Game states stored in the state table, in the same order as Game.Status
+    public static final int IN_PROGRESS = 0;
+    public static final int X_WON = 1;
+    public static final int O_WON = 2;
+    public static final int DRAWN = 3; // Every line is blocked, so nobody can win
+
+    // WIN_CELLS[mask] has a bit set for every cell on a line that the mask completes; 0 if none
+    private static final short[] WIN_CELLS;
+    // STATE[key] is IN_PROGRESS, X_WON, O_WON or DRAWN for the position with that key
+    private static final byte[] STATE;
+    // TERNARY[mask] is the sum of POW3 over the cells in the mask, so key = TERNARY[x] + 2 * TERNARY[o]
+    private static final short[] TERNARY;
+
+    static {
+        // This runs on every launch before the first prompt. The tables are built in local
+        // arrays because static fields of a class still being initialized are slow to reach
+        // from compiled code, which would leave the loops running in the interpreter.
+        int[] lines = LINES;
+        short[] winCells = new short[1 << CELLS];
+        short[] ternary = new short[1 << CELLS];
+        byte[] state = new byte[KEYS];
+        byte[] touched = new byte[1 << CELLS]; // Bit i set if the mask has a mark on lines[i]
+        for (int mask = 0; mask <= FULL; mask++) {
+            for (int cell = 0, pow = 1; cell < CELLS; cell++, pow *= 3) {
+                if ((mask & (1 << cell)) != 0) {
+                    ternary[mask] += pow;
+                }
+            }
+            for (int i = 0; i < lines.length; i++) {
+                if ((mask & lines[i]) == lines[i]) {
+                    winCells[mask] |= lines[i];
+                }
+                if ((mask & lines[i]) != 0) {
+                    touched[mask] |= 1 << i;
+                }
+            }
+        }
+        // Every position is a pair of disjoint X and O masks, so visit each O mask inside the free cells
+        for (int x = 0; x <= FULL; x++) {
+            int free = FULL & ~x;
+            int o = free;
+            while (true) {
+                byte result;
+                if (winCells[x] != 0) {
+                    result = X_WON;
+                } else if (winCells[o] != 0) {
+                    result = O_WON;
+                } else if ((touched[x] & touched[o] & 0xFF) == 0xFF) {
+                    result = DRAWN; // Both players have a mark on every line
+                } else {
+                    result = IN_PROGRESS;
+                }
+                state[ternary[x] + 2 * ternary[o]] = result;
+                if (o == 0) {
+                    break;
+                }
+                o = (o - 1) & free; // Next smaller subset of the free cells
+            }
+        }
+        WIN_CELLS = winCells;
+        TERNARY = ternary;
+        STATE = state;
+    }
+
+    private int xBits; // Cells occupied by X
+    private int oBits; // Cells occupied by O
+    private int key;   // Base-3 encoding of the board, kept up to date on every move
+
+    /**
+     * Creates an empty board.
+     */
+    public Board() {
+        clear();
+    }
+
+    @Override
+    public int rows() {
+        return ROWS;
+    }
+
+    @Override
+    public int cols() {
+        return COLS;
+    }
+
+    @Override
+    public int winLength() {
+        return WIN_LENGTH;
+    }
+
+    /**
+     * Removes every mark from the board.
+     */
+    @Override
+    public void clear() {
+        xBits = 0;
+        oBits = 0;
+        key = 0;
+    }
+
+    /**
+     * Converts a row and column into a cell index (0-8).
+     *
+     * @param row The row index (0-2).
+     * @param col The column index (0-2).
+     * @return The cell index used by the bitboard.
+     */
+    public static int cell(int row, int col) {
+        return row * COLS + col;
+    }
+
+    /**
+     * Checks if a row and column lie on the board.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return true if the coordinates are inside the board, false otherwise.
+     */
+    public static boolean inBounds(int row, int col) {
+        return row >= 0 && row < ROWS && col >= 0 && col < COLS;
+    }
+
+    /**
+     * Returns the other player.
+     *
+     * @param player Board.X or Board.O.
+     * @return Board.O for X, Board.X for O.
+     */
+    public static int opponent(int player) {
+        return player ^ (X | O); // X (01) <-> O (10)
+    }
+
+    /**
+     * Returns the display symbol for a player or empty cell.
+     *
+     * @param player Board.X, Board.O or Board.EMPTY.
+     * @return "X", "O" or " ".
+     */
+    public static String symbol(int player) {
+        if (player == X) {
+            return "X";
+        }
+        return player == O ? "O" : " ";
+    }
+
+    /**
+     * Checks if a mask of one player's marks contains a complete line.
+     *
+     * @param bits The player's 9-bit occupancy mask.
+     * @return true if any row, column or diagonal is fully covered.
+     */
+    public static boolean isWinningMask(int bits) {
+        return WIN_CELLS[bits] != 0;
+    }
+
+    /**
+     * Looks up the state of the game for a position key.
+     * Keys where both players have a line cannot arise in play and report X_WON.
+     *
+     * @param key A position key from key().
+     * @return IN_PROGRESS, X_WON, O_WON or DRAWN.
+     */
+    public static int state(int key) {
+        return STATE[key];
+    }
+
+    /**
+     * Checks if a cell is empty.
+     *
+     * @param cell The cell index (0-8).
+     * @return true if neither player occupies the cell.
+     */
+    public boolean isEmpty(int cell) {
+        return ((xBits | oBits) & (1 << cell)) == 0;
+    }
+
+    /**
+     * Checks if a cell is empty.
+     *
+     * @param row The row index (0-2).
+     * @param col The column index (0-2).
+     * @return true if neither player occupies the cell.
+     */
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return isEmpty(cell(row, col));
+    }
+
+    /**
+     * Returns who occupies a cell.
+     *
+     * @param cell The cell index (0-8).
+     * @return Board.X, Board.O or Board.EMPTY.
+     */
+    public int get(int cell) {
+        int bit = 1 << cell;
+        if ((xBits & bit) != 0) {
+            return X;
+        }
+        return (oBits & bit) != 0 ? O : EMPTY;
+    }
+
+    /**
+     * Returns who occupies a cell.
+     *
+     * @param row The row index (0-2).
+     * @param col The column index (0-2).
+     * @return Board.X, Board.O or Board.EMPTY.
+     */
+    @Override
+    public int get(int row, int col) {
+        return get(cell(row, col));
+    }
+
+    /**
+     * Places a mark for a player. The caller is responsible for checking the cell is empty.
+     *
+     * @param cell   The cell index (0-8).
+     * @param player Board.X or Board.O.
+     */
+    public void place(int cell, int player) {
+        if (player == X) {
+            xBits |= 1 << cell;
+        } else {
+            oBits |= 1 << cell;
+        }
+        key += player * POW3[cell];
+    }
+
+    @Override
+    public void place(int row, int col, int player) {
+        place(cell(row, col), player);
+    }
+
+    /**
+     * Removes whatever mark is on a cell, undoing a previous place().
+     *
+     * @param cell The cell index (0-8).
+     */
+    public void undo(int cell) {
+        int player = get(cell);
+        if (player == EMPTY) {
+            return;
+        }
+        key -= player * POW3[cell];
+        int keep = ~(1 << cell);
+        xBits &= keep;
+        oBits &= keep;
+    }
+
+    @Override
+    public void undo(int row, int col) {
+        undo(cell(row, col));
+    }
+
+    /**
+     * Returns the occupancy mask for one player.
+     *
+     * @param player Board.X or Board.O.
+     * @return The player's 9-bit mask.
+     */
+    public int bits(int player) {
+        return player == X ? xBits : oBits;
+    }
+
+    /**
+     * Returns the mask of all occupied cells.
+     *
+     * @return The union of both players' masks.
+     */
+    public int occupied() {
+        return xBits | oBits;
+    }
+
+    /**
+     * Returns the compact base-3 key of this position, unique for every arrangement of marks.
+     *
+     * @return A value from 0 to KEYS - 1.
+     */
+    public int key() {
+        return key;
+    }
+
+    /**
+     * Returns the key of this position with the X and O marks swapped. Tables built for
+     * games where X starts can look up a game where O started through this key.
+     *
+     * @return A value from 0 to KEYS - 1.
+     */
+    public int swappedKey() {
+        return 2 * TERNARY[xBits] + TERNARY[oBits];
+    }
+
+    /**
+     * Returns the state of the game on this board, with a single table lookup.
+     *
+     * @return IN_PROGRESS, X_WON, O_WON or DRAWN.
+     */
+    public int state() {
+        return STATE[key];
+    }
+
+    /**
+     * Returns whose turn it is, based on the marks on the board. X always starts.
+     *
+     * @return Board.X if both players have the same number of marks, Board.O otherwise.
+     */
+    public int playerToMove() {
+        return Integer.bitCount(xBits) == Integer.bitCount(oBits) ? X : O;
+    }
+
+    /**
+     * Returns how many marks are on the board.
+     *
+     * @return The number of occupied cells (0-9).
+     */
+    @Override
+    public int moveCount() {
+        return Integer.bitCount(xBits | oBits);
+    }
+
+    /**
+     * Checks if the specified player has three in a row anywhere on the board.
+     *
+     * @param player Board.X or Board.O.
+     * @return true if the player has a complete line.
+     */
+    public boolean isWin(int player) {
+        return isWinningMask(bits(player));
+    }
+
+    /**
+     * Checks if the mark on a cell completes a line, testing only the lines through that cell.
+     *
+     * @param row The row index of the last move.
+     * @param col The column index of the last move.
+     * @return true if the cell's owner has three in a row through it.
+     */
+    @Override
+    public boolean isWinningMove(int row, int col) {
+        int cell = cell(row, col);
+        int player = get(cell);
+        if (player == EMPTY) {
+            return false;
+        }
+        return (WIN_CELLS[bits(player)] & (1 << cell)) != 0;
+    }
+
+    /**
+     * Checks if at least one line is still free of one player's marks, so it could be completed.
+     * A lookup of the position key in the state table.
+     *
+     * @return false once every row, column and diagonal holds both an X and an O.
+     */
+    @Override
+    public boolean hasOpenLine() {
+        return STATE[key] != DRAWN;
+    }
+
+    /**
+     * Checks if every cell on the board is occupied.
+     *
+     * @return true if the board is full.
+     */
+    @Override
+    public boolean isFull() {
+        return (xBits | oBits) == FULL;
+    }
+}
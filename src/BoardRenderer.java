@@ -0,0 +1,103 @@
+import java.io.PrintStream;
+
+/**
+ * Draws a board as text, for example:
+ * <pre>
+ *  X |   | O
+ * ---+---+---
+ *    | X |
+ * ---+---+---
+ *  O |   | X
+ * </pre>
+ * The pipes, dividers and line breaks (System.lineSeparator(), as println() uses) never
+ * change, so they are laid out once in a char buffer when the renderer is created. Rendering only rewrites the cell characters
+ * and hands the whole buffer to the stream in one call, without creating any Strings.
+ * A renderer is not thread-safe; give each thread its own.
+ */
+public class BoardRenderer {
+
+    private static final int CELL_WIDTH = 4; // " X |": space, symbol, space, separator
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final int rows;       // Number of rows drawn
+    private final int cols;       // Number of columns drawn
+    private final int lineLength; // Characters per text line, including the line break
+    private final char[] buffer;  // The whole picture, reused for every render
+
+    /**
+     * Creates a renderer for boards of the given size.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public BoardRenderer(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int width = cols * CELL_WIDTH - 1; // No separator after the last cell
+        this.lineLength = width + NEW_LINE.length();
+        // Each row has a cell line, every row but the last has a divider, then one blank line
+        this.buffer = new char[(2 * rows - 1) * lineLength + NEW_LINE.length()];
+
+        for (int r = 0; r < rows; r++) {
+            int cellLine = 2 * r * lineLength;
+            for (int c = 0; c < cols; c++) {
+                int at = cellLine + c * CELL_WIDTH;
+                buffer[at] = ' ';
+                buffer[at + 1] = ' ';
+                buffer[at + 2] = ' ';
+                if (c < cols - 1) {
+                    buffer[at + 3] = '|'; // Pipe between cells
+                }
+            }
+            newLine(cellLine + width);
+            if (r < rows - 1) { // Horizontal divider, e.g. "---+---+---"
+                int divider = cellLine + lineLength;
+                for (int i = 0; i < width; i++) {
+                    buffer[divider + i] = i % CELL_WIDTH == CELL_WIDTH - 1 ? '+' : '-';
+                }
+                newLine(divider + width);
+            }
+        }
+        newLine(buffer.length - NEW_LINE.length()); // Extra line break for spacing after the board
+    }
+
+    /**
+     * Writes the platform's line separator into the buffer, as println() would end a line.
+     */
+    private void newLine(int at) {
+        NEW_LINE.getChars(0, NEW_LINE.length(), buffer, at);
+    }
+
+    /**
+     * Draws the board into the internal buffer.
+     *
+     * @param board A board of the size this renderer was created for.
+     * @return The buffer holding the drawing; it is overwritten by the next call.
+     */
+    public char[] render(GameBoard board) {
+        for (int r = 0; r < rows; r++) {
+            int cellLine = 2 * r * lineLength;
+            for (int c = 0; c < cols; c++) {
+                int player = board.get(r, c);
+                char symbol = ' ';
+                if (player == Board.X) {
+                    symbol = 'X';
+                } else if (player == Board.O) {
+                    symbol = 'O';
+                }
+                buffer[cellLine + c * CELL_WIDTH + 1] = symbol;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Draws the board and writes it to a stream with a single call.
+     *
+     * @param board A board of the size this renderer was created for.
+     * @param out   Where to write the drawing.
+     */
+    public void print(GameBoard board, PrintStream out) {
+        out.print(render(board));
+    }
+}
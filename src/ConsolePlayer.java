@@ -0,0 +1,62 @@
+import java.util.SplittableRandom;
+
+/**
+ * A person at the console, asked for a row and a column with the SafeInput prompts
+ * until they name an empty cell. Reads a FastInput, either the interactive console
+ * (with prompts) or a script. Unlike the computer players it owns an input stream, so
+ * an instance must only be used by one game at a time.
+ */
+public class ConsolePlayer implements Player {
+
+    private final FastInput in;     // Console or scripted input
+    private int promptRows;         // Board size the prompts were built for
+    private int promptCols;
+    private String rowPrompt;       // Prompts are the same for every move on one board size
+    private String colPrompt;
+
+    /**
+     * Creates a player whose moves come from the console or a script.
+     *
+     * @param in The input shared with the rest of the program; prompts are shown if it asks for them.
+     */
+    public ConsolePlayer(FastInput in) {
+        this.in = in;
+    }
+
+    @Override
+    public String name() {
+        return "console";
+    }
+
+    /**
+     * Prompts for a row and a column (both starting at 1) until they name a valid move.
+     * The random generator is not used.
+     *
+     * @throws java.util.NoSuchElementException if the input runs out first.
+     */
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        int rows = game.board().rows(); // Number of rows on the board
+        int cols = game.board().cols(); // Number of columns on the board
+        if (rowPrompt == null || rows != promptRows || cols != promptCols) {
+            rowPrompt = "Enter row (1-" + rows + ")";
+            colPrompt = "Enter column (1-" + cols + ")";
+            promptRows = rows;
+            promptCols = cols;
+        }
+        int actualRow;
+        int actualCol;
+        do {
+            // Get row and column input, then convert the 1-based coordinates to 0-based indices
+            actualRow = SafeInput.getRangedInt(in, rowPrompt, 1, rows) - 1;
+            actualCol = SafeInput.getRangedInt(in, colPrompt, 1, cols) - 1;
+
+            // Validate move
+            if (!game.isValidMove(actualRow, actualCol)) {
+                GameMetrics.invalidMove();
+                System.out.println("Invalid move! That spot is already taken or out of bounds. Please choose an empty spot.");
+            }
+        } while (!game.isValidMove(actualRow, actualCol)); // Loop until a valid move is entered
+        return actualRow * cols + actualCol;
+    }
+}
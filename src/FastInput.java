@@ -0,0 +1,187 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * A light replacement for Scanner that reads both the interactive console and recorded
+ * input such as a file of moves. Bytes are read through a buffer and numbers are parsed
+ * by hand, so there are no regular expressions, no locale data to load at startup and
+ * no Strings created for valid input.
+ * It follows the same line rules as the Scanner-based SafeInput methods: blank lines
+ * before a number are skipped and the rest of the line after a number is discarded,
+ * so a script recorded from a console session replays the same way.
+ * SafeInput does not print prompts for a FastInput unless it was created with showPrompts.
+ */
+public class FastInput implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final boolean showPrompts;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position; // Next byte to read in buffer
+    private int limit;    // Number of valid bytes in buffer
+    private final StringBuilder rejected = new StringBuilder(); // Text of the last invalid input, for messages
+    private int lastInt;  // Value read by the last successful nextIntLine()
+
+    /**
+     * Creates a reader over a stream, without prompts.
+     *
+     * @param in The stream to read, e.g. a FileInputStream or System.in.
+     */
+    public FastInput(InputStream in) {
+        this(in, false);
+    }
+
+    /**
+     * Creates a reader over a stream.
+     *
+     * @param in          The stream to read.
+     * @param showPrompts Whether SafeInput should still print its prompts.
+     */
+    public FastInput(InputStream in, boolean showPrompts) {
+        this.in = in;
+        this.showPrompts = showPrompts;
+    }
+
+    /**
+     * Returns whether SafeInput should print prompts for this input.
+     *
+     * @return true if prompts are shown.
+     */
+    public boolean showPrompts() {
+        return showPrompts;
+    }
+
+    /**
+     * Skips whitespace (including blank lines), reads one token and tries to parse it as an int,
+     * then discards the rest of the line.
+     *
+     * @return true if the token was an int (see lastInt()), false if not (see rejected()).
+     * @throws NoSuchElementException if the input is exhausted.
+     */
+    public boolean nextIntLine() {
+        int b = read();
+        while (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+            b = read();
+        }
+        if (b < 0) {
+            throw new NoSuchElementException("No more input");
+        }
+        rejected.setLength(0);
+        boolean negative = b == '-';
+        boolean valid = true;
+        long value = 0;
+        int digits = 0;
+        if (b == '-' || b == '+') {
+            rejected.append((char) b);
+            b = read();
+        }
+        while (b >= 0 && b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+            rejected.append((char) b);
+            if (valid && b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits++;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    valid = false; // Too big for an int
+                }
+            } else {
+                valid = false;
+            }
+            b = read();
+        }
+        value = negative ? -value : value;
+        valid = valid && digits > 0 && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+
+        // Discard the rest of the line, keeping it for the error message if the token was bad
+        while (b >= 0 && b != '\n') {
+            if (!valid && b != '\r') {
+                rejected.append((char) b);
+            }
+            b = read();
+        }
+        lastInt = (int) value;
+        return valid;
+    }
+
+    /**
+     * Returns the number read by the last successful nextIntLine().
+     *
+     * @return The parsed int.
+     */
+    public int lastInt() {
+        return lastInt;
+    }
+
+    /**
+     * Returns the text of the last input that was rejected, for error messages.
+     *
+     * @return The rejected text.
+     */
+    public String rejected() {
+        return rejected.toString();
+    }
+
+    /**
+     * Reads a whole line and checks if it is a yes or no answer, as getYNConfirm accepts them.
+     *
+     * @return 1 for "Y" or "y", 0 for "N" or "n", -1 for anything else (see rejected()).
+     * @throws NoSuchElementException if the input is exhausted.
+     */
+    public int nextYesNoLine() {
+        int b = read();
+        if (b < 0) {
+            throw new NoSuchElementException("No more input");
+        }
+        rejected.setLength(0);
+        while (b >= 0 && b != '\n') {
+            if (b != '\r') {
+                rejected.append((char) b);
+            }
+            b = read();
+        }
+        if (rejected.length() == 1) {
+            char answer = rejected.charAt(0);
+            if (answer == 'Y' || answer == 'y') {
+                return 1;
+            }
+            if (answer == 'N' || answer == 'n') {
+                return 0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Returns the next byte, refilling the buffer when it runs out.
+     *
+     * @return The byte (0-255), or -1 at the end of the input.
+     */
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = in.read(buffer, 0, BUFFER_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+}
@@ -0,0 +1,330 @@
+/**
+ * A single game of Tic Tac Toe: the board, whose turn it is and how the game stands.
+ * The board defaults to the classic 3x3 game but any size and win length can be
+ * chosen, such as 15x15 five-in-a-row. All state lives in the instance, so any number
+ * of games can run side by side on different threads. A Game itself is not synchronized;
+ * each instance should be driven by one thread at a time.
+ * <p>
+ * Moves are kept on a stack, so they can be taken back with undo() and replayed with
+ * redo(), each in O(1) and without allocating. The game also keeps a 64-bit Zobrist hash
+ * of the position and player to move, for use as a cache key.
+ */
+public class Game {
+
+    /**
+     * The state of a game after the most recent move.
+     */
+    public enum Status {
+        IN_PROGRESS, X_WINS, O_WINS, DRAW
+    }
+
+    private static final Status[] STATUSES = Status.values(); // Indexed by the Board state constants
+
+    private final GameBoard board; // The game board
+    private final Board classic;   // The same board when it is the 3x3 bitboard, otherwise null
+    private final int minMovesForWin; // X needs winLength marks, so no win before move 2 * winLength - 1
+    private final int[] moves; // Move stack: cells played (row * cols + col), then any undone moves that can be redone
+    private final long[] zobrist; // Zobrist keys for this board size
+    private final long sideKey;   // Zobrist key mixed in while O is to move
+    private int startingPlayer; // Who made the first move
+    private int currentPlayer; // Board.X or Board.O, whoever moves next
+    private int turnCount;     // Number of moves played so far
+    private int redoCount;     // Undone moves above turnCount on the stack
+    private long hash;         // Zobrist hash of the position and the player to move
+    private Status status;     // Result of the game so far
+
+    /**
+     * Creates a new classic 3x3 game with an empty board and X to move.
+     */
+    public Game() {
+        this(Board.ROWS, Board.COLS, Board.WIN_LENGTH);
+    }
+
+    /**
+     * Creates a new game on a board of the given size with an empty board and X to move.
+     * The classic 3x3, three-in-a-row game uses the Board bitboard; other sizes use MnkBoard.
+     *
+     * @param rows      The number of rows.
+     * @param cols      The number of columns.
+     * @param winLength Marks in a row needed to win.
+     * @throws IllegalArgumentException if the dimensions or win length are out of range.
+     */
+    public Game(int rows, int cols, int winLength) {
+        board = GameBoard.create(rows, cols, winLength);
+        classic = board instanceof Board ? (Board) board : null;
+        minMovesForWin = 2 * winLength - 1;
+        moves = new int[rows * cols];
+        zobrist = Zobrist.keys(rows * cols);
+        sideKey = zobrist[rows * cols * 2];
+        reset();
+    }
+
+    /**
+     * Clears the board and starts a new game with X to move.
+     */
+    public void reset() {
+        reset(Board.X); // X starts by default
+    }
+
+    /**
+     * Clears the board and starts a new game with the given player to move first,
+     * so a series of games can alternate who starts.
+     *
+     * @param startingPlayer Board.X or Board.O.
+     * @throws IllegalArgumentException if startingPlayer is not X or O.
+     */
+    public void reset(int startingPlayer) {
+        if (startingPlayer != Board.X && startingPlayer != Board.O) {
+            throw new IllegalArgumentException("The starting player must be X or O");
+        }
+        board.clear();
+        this.startingPlayer = startingPlayer;
+        currentPlayer = startingPlayer;
+        turnCount = 0;
+        redoCount = 0;
+        hash = startingPlayer == Board.O ? sideKey : 0;
+        status = Status.IN_PROGRESS;
+    }
+
+    /**
+     * Checks if a proposed move (row, col) is valid.
+     * A move is valid if the game is still going, the cell is on the board and it is empty.
+     *
+     * @param row The row index of the proposed move, starting at 0.
+     * @param col The column index of the proposed move, starting at 0.
+     * @return true if the move can be played, false otherwise.
+     */
+    public boolean isValidMove(int row, int col) {
+        return status == Status.IN_PROGRESS
+                && row >= 0 && row < board.rows() && col >= 0 && col < board.cols()
+                && board.isEmpty(row, col);
+    }
+
+    /**
+     * Plays a move for the current player, then checks for a win or tie and passes the turn.
+     * Any moves that were undone can no longer be redone.
+     *
+     * @param row The row index of the move, starting at 0.
+     * @param col The column index of the move, starting at 0.
+     * @return The status of the game after the move.
+     * @throws IllegalStateException    if the game is already over.
+     * @throws IllegalArgumentException if the cell is out of bounds or already taken.
+     */
+    public Status play(int row, int col) {
+        if (status != Status.IN_PROGRESS) {
+            throw new IllegalStateException("The game is already over: " + status);
+        }
+        if (!isValidMove(row, col)) {
+            throw new IllegalArgumentException("Invalid move: (" + row + ", " + col + ")");
+        }
+
+        redoCount = 0; // A new move starts a new line of play
+        apply(row, col);
+        return status;
+    }
+
+    /**
+     * Takes back the last move. The position, player to move, status and hash return to
+     * what they were before it, and the move can be played again with redo().
+     * Game metrics are taken back too, so a game counts as started and finished only
+     * while its first and last moves stand.
+     *
+     * @return The cell of the move taken back, as row * cols + col.
+     * @throws IllegalStateException if no moves have been played.
+     */
+    public int undo() {
+        if (turnCount == 0) {
+            throw new IllegalStateException("There is no move to undo");
+        }
+        if (status != Status.IN_PROGRESS) {
+            GameMetrics.gameCompletionUndone(status, turnCount);
+        }
+        if (turnCount == 1) {
+            GameMetrics.gameStartUndone();
+        }
+        int cell = moves[--turnCount];
+        int player = (turnCount & 1) == 0 ? startingPlayer : Board.opponent(startingPlayer);
+        int cols = board.cols();
+        board.undo(cell / cols, cell % cols);
+        hash ^= zobrist[cell * 2 + player - 1] ^ sideKey;
+        currentPlayer = player; // The player who made the move is to move again
+        status = Status.IN_PROGRESS; // A move was made after this position, so it was not over
+        redoCount++;
+        return cell;
+    }
+
+    /**
+     * Plays the most recently undone move again.
+     *
+     * @return The status of the game after the move.
+     * @throws IllegalStateException if there is no undone move to replay.
+     */
+    public Status redo() {
+        if (redoCount == 0) {
+            throw new IllegalStateException("There is no move to redo");
+        }
+        redoCount--;
+        int cell = moves[turnCount];
+        apply(cell / board.cols(), cell % board.cols());
+        return status;
+    }
+
+    /**
+     * Checks if there is a move to take back.
+     *
+     * @return true if undo() can be called.
+     */
+    public boolean canUndo() {
+        return turnCount > 0;
+    }
+
+    /**
+     * Checks if there is an undone move to replay.
+     *
+     * @return true if redo() can be called.
+     */
+    public boolean canRedo() {
+        return redoCount > 0;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position and the player to move. Equal positions with
+     * the same player to move have equal hashes, however the moves were ordered.
+     *
+     * @return The 64-bit hash, kept up to date on every move, undo and redo.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Places a valid move for the current player, pushes it on the move stack and
+     * works out the new status. Used by both play() and redo(), so both count in the metrics.
+     *
+     * @param row The row index of the move.
+     * @param col The column index of the move.
+     */
+    private void apply(int row, int col) {
+        if (turnCount == 0) {
+            GameMetrics.gameStarted();
+        }
+        // Record the move on the board, in the move list and in the hash
+        int cell = row * board.cols() + col;
+        board.place(row, col, currentPlayer);
+        moves[turnCount++] = cell;
+        hash ^= zobrist[cell * 2 + currentPlayer - 1] ^ sideKey;
+
+        // Check for win or tie conditions; only lines through the new mark can have been completed
+        long checkStart = GameMetrics.startTimer();
+        if (classic != null) {
+            // The 3x3 board's state table knows the result of every position
+            status = STATUSES[classic.state()];
+            if (status == Status.IN_PROGRESS) {
+                currentPlayer = Board.opponent(currentPlayer);
+            }
+        } else if (turnCount >= minMovesForWin && board.isWinningMove(row, col)) {
+            status = currentPlayer == Board.X ? Status.X_WINS : Status.O_WINS;
+        } else if (isTie()) {
+            status = Status.DRAW;
+        } else {
+            currentPlayer = Board.opponent(currentPlayer); // Game continues, toggle player
+        }
+        GameMetrics.recordWinCheck(checkStart);
+        if (status != Status.IN_PROGRESS) {
+            GameMetrics.gameCompleted(status, turnCount);
+        }
+    }
+
+    /**
+     * Checks if a player has won the game.
+     *
+     * @param player The player (Board.X or Board.O) to check for a win.
+     * @return true if the player has won, false otherwise.
+     */
+    public boolean isWin(int player) {
+        return (player == Board.X && status == Status.X_WINS) || (player == Board.O && status == Status.O_WINS);
+    }
+
+    /**
+     * Checks for a tie condition in the Tic Tac Toe game.
+     * A tie occurs as soon as every winning line is blocked, meaning it holds marks of
+     * both players, so neither side can win. This is always true once the board is full,
+     * but often happens a few moves earlier. The 3x3 board looks this up in its state
+     * table and larger boards count blocked lines as moves are made, so this check is O(1).
+     *
+     * @return true if neither player can win any more, false otherwise.
+     */
+    public boolean isTie() {
+        return !board.hasOpenLine(); // If isWin() was also false, then it's a tie.
+    }
+
+    /**
+     * Returns the status of the game.
+     *
+     * @return IN_PROGRESS, X_WINS, O_WINS or DRAW.
+     */
+    public Status status() {
+        return status;
+    }
+
+    /**
+     * Returns whose turn it is. Once the game is over this is the player who moved last.
+     *
+     * @return Board.X or Board.O.
+     */
+    public int currentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns how many moves have been played in this game.
+     *
+     * @return The number of moves so far.
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Returns a move from this game's history.
+     *
+     * @param index Which move, from 0 to turnCount() - 1.
+     * @return The cell played, as row * cols + col.
+     */
+    public int move(int index) {
+        if (index < 0 || index >= turnCount) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + turnCount);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Returns who made the first move of this game.
+     *
+     * @return Board.X or Board.O.
+     */
+    public int startingPlayer() {
+        return startingPlayer;
+    }
+
+    /**
+     * Returns who occupies a cell.
+     *
+     * @param row The row index, starting at 0.
+     * @param col The column index, starting at 0.
+     * @return Board.X, Board.O or Board.EMPTY.
+     */
+    public int get(int row, int col) {
+        return board.get(row, col);
+    }
+
+    /**
+     * Returns the live board of this game so players and tools can inspect it.
+     * Callers must leave the board as they found it.
+     *
+     * @return The board backing this game.
+     */
+    public GameBoard board() {
+        return board;
+    }
+}
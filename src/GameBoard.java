@@ -0,0 +1,121 @@
+/**
+ * A rectangular board where two players take turns placing marks and the first to get
+ * winLength() in a row (horizontally, vertically or diagonally) wins. Classic Tic Tac Toe
+ * is the 3x3 board with a win length of 3; gomoku is 15x15 with a win length of 5.
+ * Cells hold Board.EMPTY, Board.X or Board.O.
+ */
+public interface GameBoard {
+
+    /**
+     * Creates an empty board of the given size: the Board bitboard for the classic
+     * 3x3, three-in-a-row game and an MnkBoard for anything else.
+     *
+     * @param rows      The number of rows.
+     * @param cols      The number of columns.
+     * @param winLength Marks in a row needed to win.
+     * @return A new empty board.
+     * @throws IllegalArgumentException if the dimensions or win length are out of range.
+     */
+    static GameBoard create(int rows, int cols, int winLength) {
+        if (rows == Board.ROWS && cols == Board.COLS && winLength == Board.WIN_LENGTH) {
+            return new Board();
+        }
+        return new MnkBoard(rows, cols, winLength);
+    }
+
+    /**
+     * Returns the number of rows on the board.
+     *
+     * @return The row count.
+     */
+    int rows();
+
+    /**
+     * Returns the number of columns on the board.
+     *
+     * @return The column count.
+     */
+    int cols();
+
+    /**
+     * Returns how many marks in a row are needed to win.
+     *
+     * @return The win length.
+     */
+    int winLength();
+
+    /**
+     * Removes every mark from the board.
+     */
+    void clear();
+
+    /**
+     * Checks if a cell is empty.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return true if neither player occupies the cell.
+     */
+    boolean isEmpty(int row, int col);
+
+    /**
+     * Returns who occupies a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return Board.X, Board.O or Board.EMPTY.
+     */
+    int get(int row, int col);
+
+    /**
+     * Places a mark for a player. The caller is responsible for checking the cell is empty.
+     *
+     * @param row    The row index.
+     * @param col    The column index.
+     * @param player Board.X or Board.O.
+     */
+    void place(int row, int col, int player);
+
+    /**
+     * Removes the mark on a cell, undoing a previous place().
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    void undo(int row, int col);
+
+    /**
+     * Checks if the mark on a cell completes a winning line. Only the lines through
+     * that cell are examined, so after each move this costs O(winLength) rather
+     * than a scan of the whole board.
+     *
+     * @param row The row index of the last move.
+     * @param col The column index of the last move.
+     * @return true if the cell's owner has winLength() in a row through it.
+     */
+    boolean isWinningMove(int row, int col);
+
+    /**
+     * Checks if some winning line can still be completed by either player, i.e. at least
+     * one line of winLength() cells does not yet hold marks of both players. When this
+     * returns false the game can only end in a draw. This check is O(1); each implementation
+     * describes how it keeps the answer ready.
+     *
+     * @return true if the game can still be won by someone.
+     */
+    boolean hasOpenLine();
+
+    /**
+     * Returns how many marks are on the board.
+     *
+     * @return The number of occupied cells.
+     */
+    int moveCount();
+
+    /**
+     * Checks if every cell on the board is occupied.
+     *
+     * @return true if the board is full.
+     */
+    boolean isFull();
+}
@@ -0,0 +1,99 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Console client for GameServer. It joins a match, shows the board after every move
+ * and prompts for moves with SafeInput, just like the local game. A copy of the Game is
+ * kept in step with the server's MOVED messages so the board can be drawn locally.
+ */
+public class GameClient {
+
+    /**
+     * Connects to a server and plays games until the player declines another.
+     *
+     * @param args Optional host (default localhost) and port (default 7777).
+     * @throws IOException if the connection fails.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        Scanner in = new Scanner(System.in);
+
+        try (Socket socket = new Socket(host, port);
+             BufferedReader server = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            socket.setTcpNoDelay(true);
+            boolean playAgain;
+            do {
+                out.println("JOIN");
+                playMatch(in, server, out);
+                playAgain = SafeInput.getYNConfirm(in, "Do you want to play again?");
+            } while (playAgain);
+            out.println("QUIT");
+        }
+        System.out.println("Thanks for playing Tic Tac Toe!");
+    }
+
+    /**
+     * Follows one match from JOIN to RESULT.
+     *
+     * @param in     The console.
+     * @param server Lines from the server.
+     * @param out    Lines to the server.
+     * @throws IOException if the connection fails.
+     */
+    private static void playMatch(Scanner in, BufferedReader server, PrintWriter out) throws IOException {
+        Game game = null;         // Local copy of the match
+        BoardRenderer renderer = null;
+        int side = Board.EMPTY;   // Which side we play
+        String line;
+        while ((line = server.readLine()) != null) {
+            String[] words = line.split(" ");
+            switch (words[0]) {
+                case "WAIT":
+                    System.out.println("Waiting for an opponent...");
+                    break;
+                case "START":
+                    side = words[1].equals("X") ? Board.X : Board.O;
+                    game = new Game(Integer.parseInt(words[2]), Integer.parseInt(words[3]), Integer.parseInt(words[4]));
+                    renderer = new BoardRenderer(game.board().rows(), game.board().cols());
+                    SafeInput.prettyHeader("Welcome to Tic Tac Toe! You are " + words[1]);
+                    renderer.print(game.board(), System.out);
+                    break;
+                case "MOVED":
+                    game.play(Integer.parseInt(words[2]) - 1, Integer.parseInt(words[3]) - 1);
+                    renderer.print(game.board(), System.out);
+                    break;
+                case "RESULT":
+                    if (words[1].equals("DRAW")) {
+                        SafeInput.prettyHeader("It's a TIE! Good game!");
+                    } else if (words[1].equals("ABANDONED")) {
+                        SafeInput.prettyHeader("Your opponent left the game.");
+                    } else {
+                        SafeInput.prettyHeader(words[1].charAt(0) + " WINS! Congratulations!");
+                    }
+                    return;
+                case "ERROR":
+                    System.out.println("Server: " + line);
+                    break;
+                default:
+                    break;
+            }
+            // Prompt when the server is waiting on us; a rejected move is simply asked for again
+            if (game != null && game.status() == Game.Status.IN_PROGRESS && game.currentPlayer() == side
+                    && (words[0].equals("START") || words[0].equals("MOVED") || words[0].equals("ERROR"))) {
+                System.out.println("It's your turn (" + Board.symbol(side) + ").");
+                int row = SafeInput.getRangedInt(in, "Enter row (1-" + game.board().rows() + ")", 1, game.board().rows());
+                int col = SafeInput.getRangedInt(in, "Enter column (1-" + game.board().cols() + ")", 1, game.board().cols());
+                out.println("MOVE " + row + " " + col);
+            }
+        }
+        throw new IOException("Server closed the connection");
+    }
+}
@@ -0,0 +1,280 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and latency histograms for the game engine.
+ * Off by default; start the JVM with -Dttt.metrics=true to turn them on. The switch is
+ * read once into a static final field, so when it is off the JIT removes every recording
+ * call and the game loop pays nothing. When on, recording goes to striped LongAdders and
+ * lock-free Histograms, so parallel simulations do not contend on it.
+ * <p>
+ * The numbers can be read through JMX (jconsole, VisualVM) under "tictactoe:type=GameMetrics",
+ * and -Dttt.metrics.dumpSeconds=N also prints a text report to standard error every N seconds.
+ * <p>
+ * Latencies are timed with the pattern
+ * <pre>
+ * long start = GameMetrics.startTimer();
+ * ... work ...
+ * GameMetrics.recordMoveSelection(start);
+ * </pre>
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+
+    /** Whether metrics are being collected. */
+    public static final boolean ENABLED = Boolean.getBoolean("ttt.metrics");
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder xWins = new LongAdder();
+    private final LongAdder oWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private final LongAdder invalidMoves = new LongAdder();
+    private final Histogram movesPerGame = new Histogram();
+    private final Histogram winCheckNanos = new Histogram();
+    private final Histogram moveSelectionNanos = new Histogram();
+
+    static {
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Returns the process-wide metrics, e.g. to read them directly instead of through JMX.
+     *
+     * @return The single GameMetrics instance.
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the current time for timing an operation, or 0 when metrics are off.
+     *
+     * @return A System.nanoTime() reading, or 0.
+     */
+    public static long startTimer() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Counts the first move of a game.
+     */
+    public static void gameStarted() {
+        if (ENABLED) {
+            INSTANCE.gamesStarted.increment();
+        }
+    }
+
+    /**
+     * Counts a game that has reached a result.
+     *
+     * @param status X_WINS, O_WINS or DRAW.
+     * @param moves  Moves the game took.
+     */
+    public static void gameCompleted(Game.Status status, int moves) {
+        if (ENABLED) {
+            if (status == Game.Status.X_WINS) {
+                INSTANCE.xWins.increment();
+            } else if (status == Game.Status.O_WINS) {
+                INSTANCE.oWins.increment();
+            } else {
+                INSTANCE.draws.increment();
+            }
+            INSTANCE.movesPerGame.record(moves);
+        }
+    }
+
+    /**
+     * Takes back gameStarted() when the first move of a game is undone.
+     */
+    public static void gameStartUndone() {
+        if (ENABLED) {
+            INSTANCE.gamesStarted.decrement();
+        }
+    }
+
+    /**
+     * Takes back gameCompleted() when the move that ended a game is undone.
+     *
+     * @param status The result that was recorded.
+     * @param moves  The move count that was recorded.
+     */
+    public static void gameCompletionUndone(Game.Status status, int moves) {
+        if (ENABLED) {
+            if (status == Game.Status.X_WINS) {
+                INSTANCE.xWins.decrement();
+            } else if (status == Game.Status.O_WINS) {
+                INSTANCE.oWins.decrement();
+            } else {
+                INSTANCE.draws.decrement();
+            }
+            INSTANCE.movesPerGame.remove(moves);
+        }
+    }
+
+    /**
+     * Counts a move that was rejected as invalid, e.g. a taken cell typed at the console.
+     */
+    public static void invalidMove() {
+        if (ENABLED) {
+            INSTANCE.invalidMoves.increment();
+        }
+    }
+
+    /**
+     * Records how long checking a move for a win or draw took.
+     *
+     * @param start The startTimer() reading taken before the check.
+     */
+    public static void recordWinCheck(long start) {
+        if (ENABLED) {
+            INSTANCE.winCheckNanos.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records how long a computer player took to choose a move.
+     *
+     * @param start The startTimer() reading taken before the choice.
+     */
+    public static void recordMoveSelection(long start) {
+        if (ENABLED) {
+            INSTANCE.moveSelectionNanos.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesCompleted() {
+        return movesPerGame.count();
+    }
+
+    @Override
+    public long getXWins() {
+        return xWins.sum();
+    }
+
+    @Override
+    public long getOWins() {
+        return oWins.sum();
+    }
+
+    @Override
+    public long getDraws() {
+        return draws.sum();
+    }
+
+    @Override
+    public long getInvalidMoves() {
+        return invalidMoves.sum();
+    }
+
+    @Override
+    public double getMeanMovesPerGame() {
+        return movesPerGame.mean();
+    }
+
+    @Override
+    public long getWinCheckP50Nanos() {
+        return winCheckNanos.quantile(0.5);
+    }
+
+    @Override
+    public long getWinCheckP99Nanos() {
+        return winCheckNanos.quantile(0.99);
+    }
+
+    @Override
+    public long getMoveSelectionP50Nanos() {
+        return moveSelectionNanos.quantile(0.5);
+    }
+
+    @Override
+    public long getMoveSelectionP99Nanos() {
+        return moveSelectionNanos.quantile(0.99);
+    }
+
+    @Override
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("games started %d, completed %d (X %d, O %d, draws %d), invalid moves %d%n",
+                getGamesStarted(), getGamesCompleted(), getXWins(), getOWins(), getDraws(), getInvalidMoves()));
+        report.append(String.format("moves per game: mean %.2f, max %d%n", movesPerGame.mean(), movesPerGame.max()));
+        appendLatency(report, "win check", winCheckNanos);
+        appendLatency(report, "move selection", moveSelectionNanos);
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        gamesStarted.reset();
+        xWins.reset();
+        oWins.reset();
+        draws.reset();
+        invalidMoves.reset();
+        movesPerGame.reset();
+        winCheckNanos.reset();
+        moveSelectionNanos.reset();
+    }
+
+    /**
+     * Adds one line of latency percentiles to a report.
+     */
+    private static void appendLatency(StringBuilder report, String name, Histogram histogram) {
+        report.append(String.format("%s: %d samples, mean %.0f ns, p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+                name, histogram.count(), histogram.mean(), histogram.quantile(0.5), histogram.quantile(0.99),
+                histogram.quantile(0.999), histogram.max()));
+    }
+
+    /**
+     * Publishes the metrics through JMX and starts the periodic dump if one was asked for.
+     */
+    private static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName("tictactoe:type=GameMetrics"));
+        } catch (JMException e) {
+            System.err.println("Game metrics are not available through JMX: " + e.getMessage());
+        }
+        long seconds = Long.getLong("ttt.metrics.dumpSeconds", 0);
+        if (seconds > 0) {
+            Dump dump = new Dump();
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(dump);
+            dumper.scheduleAtFixedRate(dump, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * The periodic report and the daemon thread it runs on. A plain class rather than
+     * lambdas, like TicTacToe's shutdown task, so loading the metrics stays cheap.
+     */
+    private static final class Dump implements Runnable, ThreadFactory {
+
+        @Override
+        public void run() {
+            System.err.print(INSTANCE.report());
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "game-metrics-dump");
+            thread.setDaemon(true); // Never keeps the JVM alive
+            return thread;
+        }
+    }
+}
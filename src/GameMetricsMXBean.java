@@ -0,0 +1,95 @@
+/**
+ * The JMX view of GameMetrics, registered as "tictactoe:type=GameMetrics" when metrics
+ * are enabled. Latencies are in nanoseconds.
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * Returns the number of games in which a first move was played.
+     *
+     * @return The running total.
+     */
+    long getGamesStarted();
+
+    /**
+     * Returns the number of games that reached a result.
+     *
+     * @return The running total.
+     */
+    long getGamesCompleted();
+
+    /**
+     * Returns the number of games X has won.
+     *
+     * @return The running total.
+     */
+    long getXWins();
+
+    /**
+     * Returns the number of games O has won.
+     *
+     * @return The running total.
+     */
+    long getOWins();
+
+    /**
+     * Returns the number of drawn games.
+     *
+     * @return The running total.
+     */
+    long getDraws();
+
+    /**
+     * Returns the number of moves that were asked for and rejected as invalid.
+     *
+     * @return The running total.
+     */
+    long getInvalidMoves();
+
+    /**
+     * Returns the mean number of moves in a completed game.
+     *
+     * @return The mean, or 0 if no game has completed.
+     */
+    double getMeanMovesPerGame();
+
+    /**
+     * Returns the median time to check a move for a win or draw.
+     *
+     * @return Nanoseconds.
+     */
+    long getWinCheckP50Nanos();
+
+    /**
+     * Returns the 99th percentile time to check a move for a win or draw.
+     *
+     * @return Nanoseconds.
+     */
+    long getWinCheckP99Nanos();
+
+    /**
+     * Returns the median time for a computer player to choose a move.
+     *
+     * @return Nanoseconds.
+     */
+    long getMoveSelectionP50Nanos();
+
+    /**
+     * Returns the 99th percentile time for a computer player to choose a move.
+     *
+     * @return Nanoseconds.
+     */
+    long getMoveSelectionP99Nanos();
+
+    /**
+     * Returns every metric as readable text.
+     *
+     * @return A multi-line report.
+     */
+    String report();
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    void reset();
+}
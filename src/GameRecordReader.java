@@ -0,0 +1,208 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a game archive written by GameRecordWriter.
+ * The file is memory-mapped and records are decoded in place: moving to the next game
+ * and reading its result or moves touches only the mapped bytes, with no copying and no
+ * objects per game. Large files are mapped in windows of up to 1 GB, so archives of
+ * billions of games can be scanned. A reader is not thread-safe.
+ */
+public class GameRecordReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;      // File length in bytes
+    private MappedByteBuffer window; // The mapped part of the file
+    private long windowStart;     // File offset of the window
+    private int record = -1;      // Offset of the current record within the window
+    private int nextRecord;       // Offset of the record after it
+    private int header;           // Header byte of the current record
+
+    /**
+     * Opens an archive for reading, positioned before the first game.
+     *
+     * @param path The archive file.
+     * @throws IOException if the file cannot be read or is not a game archive.
+     */
+    public GameRecordReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        checkFileHeader(channel);
+        map(0);
+        nextRecord = GameRecordWriter.FILE_HEADER_LENGTH;
+    }
+
+    /**
+     * Moves to the next game.
+     *
+     * @return true if there is one, false at the end of the archive.
+     * @throws IllegalStateException if the record is corrupt or the last record is cut short.
+     */
+    public boolean next() {
+        if (windowStart + nextRecord >= size) {
+            return false;
+        }
+        if (nextRecord + GameRecordWriter.MAX_RECORD_LENGTH > window.limit() && windowStart + window.limit() < size) {
+            // The record may cross the end of the window; slide the window forward to it
+            try {
+                map(windowStart + nextRecord);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map archive", e);
+            }
+        }
+        record = nextRecord;
+        header = window.get(record) & 0xFF;
+        // Check everything the accessors rely on here, once, so a foreign or damaged file
+        // cannot send a move or count out of range into the caller's arrays
+        if ((header & 0x80) != 0 || moveCount() > Board.CELLS) {
+            throw corrupt();
+        }
+        nextRecord = record + 1 + (moveCount() + 1) / 2;
+        if (nextRecord > window.limit()) {
+            throw new IllegalStateException("Archive ends in the middle of a game");
+        }
+        for (int i = 0; i < moveCount(); i++) {
+            if (move(i) >= Board.CELLS) {
+                throw corrupt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns how the current game ended.
+     *
+     * @return X_WINS, O_WINS, DRAW or IN_PROGRESS for an unfinished game.
+     */
+    public Game.Status result() {
+        switch ((header >>> 5) & 0b11) {
+            case GameRecordWriter.RESULT_X_WINS:
+                return Game.Status.X_WINS;
+            case GameRecordWriter.RESULT_O_WINS:
+                return Game.Status.O_WINS;
+            case GameRecordWriter.RESULT_DRAW:
+                return Game.Status.DRAW;
+            default:
+                return Game.Status.IN_PROGRESS;
+        }
+    }
+
+    /**
+     * Returns who moved first in the current game.
+     *
+     * @return Board.X or Board.O.
+     */
+    public int startingPlayer() {
+        return (header & 0x10) == 0 ? Board.X : Board.O;
+    }
+
+    /**
+     * Returns how many moves the current game has.
+     *
+     * @return The number of moves (0-9).
+     */
+    public int moveCount() {
+        return header & 0x0F;
+    }
+
+    /**
+     * Returns one move of the current game.
+     *
+     * @param index Which move, from 0 to moveCount() - 1.
+     * @return The cell played (0-8).
+     */
+    public int move(int index) {
+        int packed = window.get(record + 1 + (index >> 1));
+        return (index & 1) == 0 ? packed & 0x0F : (packed >>> 4) & 0x0F;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private IllegalStateException corrupt() {
+        return new IllegalStateException("Archive is corrupt: bad game record at byte " + (windowStart + record));
+    }
+
+    /**
+     * Maps up to WINDOW_SIZE bytes starting at a file offset.
+     */
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+        nextRecord = 0;
+    }
+
+    /**
+     * Checks that a file starts with the archive magic number and a known version.
+     *
+     * @param channel The file.
+     * @throws IOException if it does not.
+     */
+    static void checkFileHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(GameRecordWriter.FILE_HEADER_LENGTH);
+        channel.read(header, 0);
+        header.flip();
+        for (byte expected : GameRecordWriter.MAGIC) {
+            if (!header.hasRemaining() || header.get() != expected) {
+                throw new IOException("Not a game archive");
+            }
+        }
+        if (!header.hasRemaining() || header.get() != GameRecordWriter.VERSION) {
+            throw new IOException("Unsupported game archive version");
+        }
+    }
+
+    /**
+     * Scans an archive and prints aggregate statistics.
+     *
+     * @param args The archive file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: java GameRecordReader FILE");
+        }
+        long games = 0;
+        long[] results = new long[Game.Status.values().length];
+        long[] firstMoves = new long[Board.CELLS];
+        long[] lengths = new long[Board.CELLS + 1];
+        long start = System.nanoTime();
+        try (GameRecordReader reader = new GameRecordReader(Paths.get(args[0]))) {
+            while (reader.next()) {
+                games++;
+                results[reader.result().ordinal()]++;
+                lengths[reader.moveCount()]++;
+                if (reader.moveCount() > 0) {
+                    firstMoves[reader.move(0)]++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Games: " + games);
+        for (Game.Status status : Game.Status.values()) {
+            System.out.printf("%-12s %d%n", status, results[status.ordinal()]);
+        }
+        System.out.println("First move (cell: games):");
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            System.out.printf("  %d: %d%n", cell, firstMoves[cell]);
+        }
+        System.out.println("Game length (moves: games):");
+        for (int moves = 0; moves <= Board.CELLS; moves++) {
+            if (lengths[moves] > 0) {
+                System.out.printf("  %d: %d%n", moves, lengths[moves]);
+            }
+        }
+        System.out.printf("Scanned in %.3f s, %.0f games/s%n", seconds, games / seconds);
+    }
+}
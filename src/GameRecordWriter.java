@@ -0,0 +1,158 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends finished classic 3x3 games to a compact binary archive.
+ * <p>
+ * File layout: the 4 bytes "TTTR" and a version byte, then one record per game.
+ * A record is a header byte followed by the moves packed two to a byte, 4 bits each
+ * (the cell index 0-8, first move in the low nibble), so a game takes 1 to 6 bytes.
+ * <pre>
+ * header bit 7    : reserved, 0
+ * header bits 5-6 : result, 0 = X wins, 1 = O wins, 2 = draw, 3 = unfinished
+ * header bit 4    : starting player, 0 = X, 1 = O
+ * header bits 0-3 : number of moves (0-9)
+ * </pre>
+ * Records are gathered in a direct buffer and written to the FileChannel in large blocks.
+ * A writer is not thread-safe.
+ */
+public class GameRecordWriter implements Closeable {
+
+    static final byte[] MAGIC = {'T', 'T', 'T', 'R'};
+    static final byte VERSION = 1;
+    static final int FILE_HEADER_LENGTH = MAGIC.length + 1;
+    static final int MAX_RECORD_LENGTH = 1 + (Board.CELLS + 1) / 2;
+
+    // Result codes stored in header bits 5-6
+    static final int RESULT_X_WINS = 0;
+    static final int RESULT_O_WINS = 1;
+    static final int RESULT_DRAW = 2;
+    static final int RESULT_UNFINISHED = 3;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    /**
+     * Opens an archive for appending, creating it (with its file header) if it does not exist.
+     * A record left half-written at the end of an existing archive, e.g. by a crash, is cut off
+     * first; otherwise every game appended after it would be read from the wrong offset.
+     * Finding it means reading the record headers once, so opening takes time in proportion
+     * to the archive's size.
+     *
+     * @param path The archive file.
+     * @throws IOException if the file cannot be opened or is not a game archive.
+     */
+    public GameRecordWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            buffer.put(MAGIC).put(VERSION);
+        } else {
+            GameRecordReader.checkFileHeader(channel);
+            long end = completeLength(channel);
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            channel.position(end); // Add after the existing games
+        }
+    }
+
+    /**
+     * Adds a game to the archive. Only classic 3x3 games fit the 4-bit move encoding.
+     *
+     * @param game The game to record, normally a finished one.
+     * @throws IOException              if writing fails.
+     * @throws IllegalArgumentException if the game is not on a 3x3 board.
+     */
+    public void write(Game game) throws IOException {
+        if (!(game.board() instanceof Board)) {
+            throw new IllegalArgumentException("Only classic 3x3 games can be recorded");
+        }
+        if (buffer.remaining() < MAX_RECORD_LENGTH) {
+            drain();
+        }
+        int moves = game.turnCount();
+        buffer.put((byte) ((resultCode(game.status()) << 5)
+                | ((game.startingPlayer() == Board.O ? 1 : 0) << 4)
+                | moves));
+        for (int i = 0; i < moves; i += 2) {
+            int low = game.move(i);
+            int high = i + 1 < moves ? game.move(i + 1) : 0;
+            buffer.put((byte) (low | (high << 4)));
+        }
+    }
+
+    /**
+     * Writes any buffered records to the file.
+     *
+     * @throws IOException if writing fails.
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Writes any buffered records and closes the file.
+     *
+     * @throws IOException if writing or closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the length of an archive up to the end of its last complete record.
+     */
+    private static long completeLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long end = FILE_HEADER_LENGTH;
+        ByteBuffer block = ByteBuffer.allocate(1 << 16);
+        while (end < size) {
+            block.clear();
+            int n = channel.read(block, end);
+            // Step over every record that fits wholly in the block
+            int i = 0;
+            while (i < n) {
+                int length = 1 + ((block.get(i) & 0x0F) + 1) / 2;
+                if (i + length > n) {
+                    break;
+                }
+                i += length;
+            }
+            if (i == 0) {
+                break; // The last record is cut short
+            }
+            end += i;
+        }
+        return end;
+    }
+
+    private static int resultCode(Game.Status status) {
+        switch (status) {
+            case X_WINS:
+                return RESULT_X_WINS;
+            case O_WINS:
+                return RESULT_O_WINS;
+            case DRAW:
+                return RESULT_DRAW;
+            default:
+                return RESULT_UNFINISHED;
+        }
+    }
+}
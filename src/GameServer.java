@@ -0,0 +1,407 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A TCP server that hosts many Tic Tac Toe matches at once.
+ * One thread drives every connection through a non-blocking NIO Selector, so the
+ * per-match cost is a Game plus two small buffers rather than a thread per player.
+ * The rules come straight from Game. Clients speak a line protocol (ASCII, one command
+ * per line, rows and columns numbered from 1 as in the console game):
+ * <pre>
+ * client: JOIN [rows cols win]   server: WAIT, then START X|O rows cols win once paired
+ * client: MOVE row col           server: MOVED X|O row col to both players, then
+ *                                        RESULT X_WINS|O_WINS|DRAW when the game ends
+ * client: STATE                  server: STATE status toMove cells  (cells row by row, '.' if empty)
+ * client: QUIT                   server closes the connection
+ * </pre>
+ * Mistakes get "ERROR message". If a player leaves mid-game the other gets "RESULT ABANDONED".
+ * After a RESULT either player may JOIN again. A client that stops reading its replies is
+ * disconnected once MAX_OUT bytes are waiting for it.
+ */
+public class GameServer implements Runnable {
+
+    public static final int DEFAULT_PORT = 7777;
+    private static final int MAX_LINE = 128;      // Longest command accepted
+    private static final int MAX_SIDE = 50;       // Largest board side a client may ask for
+    private static final int MAX_OUT = 16 * 1024; // Most output queued for a client; a 50x50 STATE is 2.5 KB
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Map<String, Connection> waiting = new HashMap<>(); // One waiting player per board size
+    private volatile boolean running = true;
+
+    /**
+     * Opens the server socket. Call run() to start serving.
+     *
+     * @param port The TCP port to listen on, or 0 for any free port.
+     * @throws IOException if the socket cannot be opened.
+     */
+    public GameServer(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The bound TCP port.
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Serves connections until close() is called.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            // Usually out of file descriptors; keep serving the players we have
+                            System.err.println("Accept failed: " + e.getMessage());
+                        }
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                read(connection);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(connection);
+                            }
+                        } catch (IOException e) {
+                            disconnect(connection); // Client went away
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Selector failed", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true); // Moves are tiny; send them right away
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Reads whatever has arrived and handles every complete line.
+     */
+    private void read(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        if (connection.channel.read(in) < 0) {
+            disconnect(connection);
+            return;
+        }
+        in.flip();
+        int lineStart = 0;
+        for (int i = in.position(); i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                int end = i > lineStart && in.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(in.array(), lineStart, end - lineStart, StandardCharsets.US_ASCII);
+                handle(connection, line.trim());
+                lineStart = i + 1;
+                if (!connection.channel.isOpen()) {
+                    return;
+                }
+            }
+        }
+        in.position(lineStart);
+        in.compact();
+        if (!in.hasRemaining()) {
+            send(connection, "ERROR line too long");
+            disconnect(connection);
+        }
+    }
+
+    /**
+     * Carries out one command from a client.
+     */
+    private void handle(Connection connection, String line) {
+        String[] words = line.split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "JOIN":
+                    join(connection, words);
+                    break;
+                case "MOVE":
+                    move(connection, words);
+                    break;
+                case "STATE":
+                    state(connection);
+                    break;
+                case "QUIT":
+                    disconnect(connection);
+                    break;
+                case "":
+                    break; // Ignore blank lines
+                default:
+                    send(connection, "ERROR unknown command " + words[0]);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            send(connection, "ERROR " + e.getMessage());
+        }
+    }
+
+    private void join(Connection connection, String[] words) {
+        if (connection.match != null || waiting.containsValue(connection)) {
+            throw new IllegalStateException("already joined");
+        }
+        int rows = Board.ROWS;
+        int cols = Board.COLS;
+        int winLength = Board.WIN_LENGTH;
+        if (words.length == 4) {
+            rows = Integer.parseInt(words[1]);
+            cols = Integer.parseInt(words[2]);
+            winLength = Integer.parseInt(words[3]);
+            if (rows > MAX_SIDE || cols > MAX_SIDE) {
+                throw new IllegalArgumentException("board sides are limited to " + MAX_SIDE);
+            }
+            new MnkBoard(rows, cols, winLength); // Validates the size before anyone waits on it
+        } else if (words.length != 1) {
+            throw new IllegalArgumentException("usage: JOIN [rows cols win]");
+        }
+
+        String size = rows + " " + cols + " " + winLength;
+        Connection opponent = waiting.remove(size);
+        if (opponent == null) {
+            waiting.put(size, connection);
+            send(connection, "WAIT");
+            return;
+        }
+        // The player who waited longest moves first
+        Match match = new Match(new Game(rows, cols, winLength), opponent, connection);
+        opponent.match = match;
+        opponent.side = Board.X;
+        connection.match = match;
+        connection.side = Board.O;
+        send(opponent, "START X " + size);
+        send(connection, "START O " + size);
+    }
+
+    private void move(Connection connection, String[] words) {
+        Match match = connection.match;
+        if (match == null) {
+            throw new IllegalStateException("not in a game");
+        }
+        if (words.length != 3) {
+            throw new IllegalArgumentException("usage: MOVE row col");
+        }
+        Game game = match.game;
+        if (game.currentPlayer() != connection.side) {
+            throw new IllegalStateException("not your turn");
+        }
+        int row = Integer.parseInt(words[1]);
+        int col = Integer.parseInt(words[2]);
+        if (!game.isValidMove(row - 1, col - 1)) {
+            GameMetrics.invalidMove();
+            throw new IllegalArgumentException("invalid move " + row + " " + col);
+        }
+
+        Game.Status status = game.play(row - 1, col - 1);
+        String moved = "MOVED " + Board.symbol(connection.side) + " " + row + " " + col;
+        // A failed send disconnects that player and abandons the match, so check it is still on
+        send(match.x, moved);
+        if (isLive(match)) {
+            send(match.o, moved);
+        }
+        if (!isLive(match)) {
+            return;
+        }
+        if (status != Game.Status.IN_PROGRESS) {
+            // End the match before sending the result, so a failed send cannot also abandon it
+            match.x.match = null;
+            match.o.match = null;
+            send(match.x, "RESULT " + status);
+            send(match.o, "RESULT " + status);
+        }
+    }
+
+    /**
+     * Checks that neither player has left a match.
+     */
+    private static boolean isLive(Match match) {
+        return match.x.match == match && match.o.match == match;
+    }
+
+    private void state(Connection connection) {
+        Match match = connection.match;
+        if (match == null) {
+            throw new IllegalStateException("not in a game");
+        }
+        Game game = match.game;
+        GameBoard board = game.board();
+        StringBuilder line = new StringBuilder("STATE ").append(game.status()).append(' ')
+                .append(Board.symbol(game.currentPlayer())).append(' ');
+        for (int r = 0; r < board.rows(); r++) {
+            for (int c = 0; c < board.cols(); c++) {
+                int player = board.get(r, c);
+                line.append(player == Board.EMPTY ? '.' : Board.symbol(player).charAt(0));
+            }
+        }
+        send(connection, line.toString());
+    }
+
+    /**
+     * Queues a line for a client and writes as much as the socket will take right now.
+     * A client that lets more than MAX_OUT bytes pile up is not reading its replies and is
+     * disconnected, so it cannot run the server out of memory.
+     */
+    private void send(Connection connection, String line) {
+        if (!connection.channel.isOpen()) {
+            return;
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (connection.out.position() + bytes.length > MAX_OUT) {
+            disconnect(connection);
+            return;
+        }
+        if (connection.out.remaining() < bytes.length) {
+            // Grow the output buffer; only slow readers ever need this
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(connection.out.capacity() * 2,
+                    connection.out.position() + bytes.length));
+            connection.out.flip();
+            bigger.put(connection.out);
+            connection.out = bigger;
+        }
+        connection.out.put(bytes);
+        try {
+            flush(connection);
+        } catch (IOException e) {
+            disconnect(connection);
+        }
+    }
+
+    /**
+     * Writes queued output; asks to be told when the socket is writable if some is left over.
+     */
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        out.flip();
+        connection.channel.write(out);
+        out.compact();
+        // Only touch the interest set when it changes; each change is a system call
+        boolean pending = out.position() > 0;
+        if (pending != connection.writePending && connection.key.isValid()) {
+            connection.key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            connection.writePending = pending;
+        }
+    }
+
+    /**
+     * Closes a connection, takes it out of the waiting list and ends its match.
+     */
+    private void disconnect(Connection connection) {
+        waiting.values().remove(connection);
+        Match match = connection.match;
+        if (match != null) {
+            Connection opponent = match.x == connection ? match.o : match.x;
+            connection.match = null;
+            opponent.match = null;
+            send(opponent, "RESULT ABANDONED");
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            // Shutting down anyway
+        }
+    }
+
+    /**
+     * One connected client.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+        ByteBuffer out = ByteBuffer.allocate(64);
+        SelectionKey key;
+        boolean writePending; // Output is waiting for the socket to become writable
+        Match match;          // Current match, or null
+        int side;             // Board.X or Board.O within the match
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Two connections playing one Game.
+     */
+    private static final class Match {
+        final Game game;
+        final Connection x;
+        final Connection o;
+
+        Match(Game game, Connection x, Connection o) {
+            this.game = game;
+            this.x = x;
+            this.o = o;
+        }
+    }
+
+    /**
+     * Starts a server from the command line.
+     *
+     * @param args Optional port number (default 7777).
+     * @throws IOException if the socket cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port);
+        System.out.println("Tic Tac Toe server listening on port " + server.port());
+        server.run();
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays by simple rules of thumb: win if possible, otherwise block the opponent's
+ * winning move, otherwise take the centre, otherwise play randomly.
+ * Works on boards of any size.
+ */
+public class HeuristicPlayer implements Player {
+
+    private final RandomPlayer fallback = new RandomPlayer();
+
+    @Override
+    public String name() {
+        return "heuristic";
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        GameBoard board = game.board();
+        int player = game.currentPlayer();
+
+        // 1. Complete one of our own lines
+        int move = findWinningMove(board, player);
+        if (move >= 0) {
+            return move;
+        }
+        // 2. Block the opponent from completing one of theirs
+        move = findWinningMove(board, Board.opponent(player));
+        if (move >= 0) {
+            return move;
+        }
+        // 3. Take the centre if it is free
+        int centreRow = board.rows() / 2;
+        int centreCol = board.cols() / 2;
+        if (board.isEmpty(centreRow, centreCol)) {
+            return centreRow * board.cols() + centreCol;
+        }
+        // 4. Anything else
+        return fallback.chooseMove(game, random);
+    }
+
+    /**
+     * Finds a cell where the player would complete a winning line.
+     *
+     * @param board  The board; trial moves are undone before returning.
+     * @param player The player to look for.
+     * @return The cell as row * cols + col, or -1 if there is none.
+     */
+    private static int findWinningMove(GameBoard board, int player) {
+        for (int r = 0; r < board.rows(); r++) {
+            for (int c = 0; c < board.cols(); c++) {
+                if (board.isEmpty(r, c)) {
+                    board.place(r, c, player);
+                    boolean wins = board.isWinningMove(r, c);
+                    board.undo(r, c);
+                    if (wins) {
+                        return r * board.cols() + c;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
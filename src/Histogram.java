@@ -0,0 +1,151 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of non-negative longs such as latencies in nanoseconds.
+ * Buckets are laid out like HdrHistogram's: values below 32 get a bucket each, and
+ * above that every power of two is split into 16 buckets, so any recorded value is
+ * reported to within about 6%. The buckets are a fixed AtomicLongArray, so recording
+ * is a couple of shifts and an atomic increment: no locks and no allocation.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;                   // 16 buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 40 - SUB_BUCKET_BITS - 1;  // Values up to 2^40 (about 18 minutes in ns)
+    private static final int BUCKETS = SUB_BUCKETS * (MAX_SHIFT + 2);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();  // Number of values recorded
+    private final LongAdder sum = new LongAdder();    // Sum of the values, for the mean
+    private final AtomicLong max = new AtomicLong(); // A CAS loop rather than a lambda accumulator, to keep startup lean
+
+    /**
+     * Records one value.
+     *
+     * @param value The value; negative values count as 0 and huge ones land in the top bucket.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.getAndIncrement(bucketOf(v));
+        total.increment();
+        sum.add(v);
+        long current;
+        while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+            // Another thread raised the maximum; try again against its value
+        }
+    }
+
+    /**
+     * Takes back a value recorded earlier, e.g. for a game result that was undone.
+     * The maximum still reflects every value ever recorded.
+     *
+     * @param value The value that was passed to record().
+     */
+    public void remove(long value) {
+        long v = Math.max(value, 0);
+        counts.getAndDecrement(bucketOf(v));
+        total.decrement();
+        sum.add(-v);
+    }
+
+    /**
+     * Returns how many values have been recorded.
+     *
+     * @return The count.
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean, or 0 if nothing has been recorded.
+     */
+    public double mean() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The maximum, or 0 if nothing has been recorded.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns a value at or above the given fraction of recorded values, rounded up to
+     * the top of its bucket. Recording may continue while this runs; the answer then
+     * reflects some moment during the call.
+     *
+     * @param quantile A fraction from 0 to 1, e.g. 0.99 for the 99th percentile.
+     * @return The quantile, or 0 if nothing has been recorded.
+     */
+    public long quantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(lowestValue(i + 1) - 1, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forgets every recorded value. Values recorded during the reset may be kept or lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the bucket a value falls in.
+     *
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    private static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value; // Small values are exact
+        }
+        // Shift so the value keeps its top 5 bits, 1xxxx, then use xxxx as the sub-bucket
+        int shift = Math.min(63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS, MAX_SHIFT);
+        int sub = (int) Math.min(value >>> shift, 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+        return SUB_BUCKETS * (shift + 1) + sub;
+    }
+
+    /**
+     * Returns the smallest value that falls in a bucket.
+     *
+     * @param bucket A bucket index, or BUCKETS for the end of the last bucket.
+     * @return The bucket's lower bound.
+     */
+    private static long lowestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Load generator for GameServer. Opens many client connections from one thread using
+ * a Selector, has every client join and play random moves until the requested number of
+ * games have finished, then reports games per second and move round-trip latency
+ * (from sending MOVE until the server's MOVED comes back). The run stops early, with an
+ * error, if every client has been disconnected or nothing arrives for IDLE_TIMEOUT_MILLIS.
+ * With no host given it starts a server in the same JVM on a free loopback port.
+ * Very high client counts may need a larger open file limit (ulimit -n).
+ */
+public class LoadTest {
+
+    private static final String USAGE = "Usage: java LoadTest [--clients N] [--games N] [--host H] [--port P] [--seed N]";
+    private static final int LATENCY_SAMPLES = 1 << 20; // Round trips kept for percentiles
+    private static final long IDLE_TIMEOUT_MILLIS = 10_000; // Give up if the server goes quiet this long
+
+    private final Selector selector = Selector.open();
+    private final RandomPlayer player = new RandomPlayer();
+    private final SplittableRandom random;
+    private final long targetGames;
+    private long gamesFinished;
+    private long errors;
+    private int liveClients;  // Clients whose connection is still open
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long moveCount;
+
+    private LoadTest(long targetGames, long seed) throws IOException {
+        this.targetGames = targetGames;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Runs the load test from the command line.
+     *
+     * @param args Optional settings, see USAGE.
+     * @throws IOException if connections cannot be opened.
+     * @throws InterruptedException if interrupted while stopping the local server.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = 1000;
+        long games = 100_000;
+        String host = null;
+        int port = GameServer.DEFAULT_PORT;
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--clients":
+                        clients = Integer.parseInt(args[++i]);
+                        break;
+                    case "--games":
+                        games = Long.parseLong(args[++i]);
+                        break;
+                    case "--host":
+                        host = args[++i];
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        GameServer server = null;
+        Thread serverThread = null;
+        if (host == null) { // Loopback: host the server ourselves
+            server = new GameServer(0);
+            serverThread = new Thread(server, "game-server");
+            serverThread.start();
+            host = "127.0.0.1";
+            port = server.port();
+        }
+
+        LoadTest test = new LoadTest(games, seed);
+        long start = System.nanoTime();
+        test.run(new InetSocketAddress(host, port), clients);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        test.report(clients, seconds);
+
+        if (server != null) {
+            server.close();
+            serverThread.join();
+        }
+    }
+
+    /**
+     * Connects the clients and plays until enough games have finished.
+     */
+    private void run(InetSocketAddress address, int clients) throws IOException {
+        for (int i = 0; i < clients; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            Client client = new Client(channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            liveClients++;
+            send(client, "JOIN");
+        }
+        while (gamesFinished < targetGames) {
+            if (liveClients == 0) {
+                System.err.println("Every client was disconnected after " + gamesFinished + " of "
+                        + targetGames + " games");
+                errors++;
+                break;
+            }
+            if (selector.select(IDLE_TIMEOUT_MILLIS) == 0) {
+                System.err.println("Nothing received for " + IDLE_TIMEOUT_MILLIS / 1000 + " s after "
+                        + gamesFinished + " of " + targetGames + " games; " + liveClients + " clients left");
+                errors++;
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isValid() && key.isReadable()) {
+                    read(client);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    try {
+                        flush(client);
+                    } catch (IOException e) {
+                        errors++; // One lost connection is counted, not fatal to the whole test
+                        drop(client);
+                    }
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void read(Client client) throws IOException {
+        ByteBuffer in = client.in;
+        int read;
+        try {
+            read = client.channel.read(in);
+        } catch (IOException e) {
+            read = -1; // Connection reset: treat it like the server closing it
+            errors++;
+        }
+        if (read < 0) {
+            drop(client);
+            return;
+        }
+        in.flip();
+        int lineStart = 0;
+        for (int i = 0; i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                handle(client, new String(in.array(), lineStart, i - lineStart, StandardCharsets.US_ASCII));
+                lineStart = i + 1;
+                if (!client.channel.isOpen()) {
+                    return;
+                }
+            }
+        }
+        in.position(lineStart);
+        in.compact();
+    }
+
+    /**
+     * Reacts to one line from the server.
+     */
+    private void handle(Client client, String line) {
+        String[] words = line.split(" ");
+        switch (words[0]) {
+            case "START":
+                client.side = words[1].equals("X") ? Board.X : Board.O;
+                client.game.reset();
+                break;
+            case "MOVED":
+                int side = words[1].equals("X") ? Board.X : Board.O;
+                if (side == client.side) {
+                    recordLatency(System.nanoTime() - client.sentAt);
+                }
+                client.game.play(Integer.parseInt(words[2]) - 1, Integer.parseInt(words[3]) - 1);
+                break;
+            case "RESULT":
+                if (client.side == Board.X) {
+                    gamesFinished++; // Count each game once
+                }
+                client.side = Board.EMPTY;
+                send(client, "JOIN");
+                return;
+            case "ERROR":
+                errors++;
+                break;
+            default:
+                break;
+        }
+        Game game = client.game;
+        if (client.side != Board.EMPTY && game.status() == Game.Status.IN_PROGRESS
+                && game.currentPlayer() == client.side) {
+            int cell = player.chooseMove(game, random);
+            client.sentAt = System.nanoTime();
+            send(client, "MOVE " + (cell / Board.COLS + 1) + " " + (cell % Board.COLS + 1));
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        latencies[(int) (moveCount++ % LATENCY_SAMPLES)] = nanos;
+    }
+
+    private void send(Client client, String line) {
+        if (!client.channel.isOpen()) {
+            return;
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (client.out.remaining() < bytes.length) {
+            // A client has at most a command or two queued; a full buffer means the server stopped reading
+            errors++;
+            drop(client);
+            return;
+        }
+        client.out.put(bytes);
+        try {
+            flush(client);
+        } catch (IOException e) {
+            errors++;
+            drop(client);
+        }
+    }
+
+    private void flush(Client client) throws IOException {
+        ByteBuffer out = client.out;
+        out.flip();
+        client.channel.write(out);
+        out.compact();
+        boolean pending = out.position() > 0;
+        if (pending != client.writePending) { // Each interest change is a system call
+            client.key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            client.writePending = pending;
+        }
+    }
+
+    /**
+     * Closes a client's connection and stops counting it as live.
+     */
+    private void drop(Client client) {
+        if (!client.channel.isOpen()) {
+            return;
+        }
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        liveClients--;
+    }
+
+    private void report(int clients, double seconds) {
+        int samples = (int) Math.min(moveCount, LATENCY_SAMPLES);
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        System.out.println(clients + " clients, " + gamesFinished + " games, " + moveCount + " moves, "
+                + errors + " errors");
+        System.out.printf("%.3f s, %.0f games/s, %.0f moves/s%n", seconds, gamesFinished / seconds, moveCount / seconds);
+        if (samples > 0) {
+            System.out.printf("Move round trip: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                    sorted[samples / 2] / 1e3, sorted[(int) (samples * 0.99)] / 1e3, sorted[samples - 1] / 1e3);
+        }
+    }
+
+    /**
+     * One simulated player.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(256);
+        final ByteBuffer out = ByteBuffer.allocate(256);
+        final Game game = new Game(); // Local copy of the current match
+        SelectionKey key;
+        int side = Board.EMPTY;       // Side in the current match, Board.EMPTY between matches
+        long sentAt;                  // When our last MOVE was sent
+        boolean writePending;         // Output is waiting for the socket to become writable
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays by Monte Carlo Tree Search, for boards too big to search exhaustively.
+ * Each search grows a tree of positions from the current one: it walks down the tree
+ * choosing moves by UCT (upper confidence bounds), adds the children of the position it
+ * reaches, finishes the game with random moves (a playout) and credits the result to
+ * every position on the way. The most visited move at the root is played.
+ * <p>
+ * Searches use root parallelism: each worker thread grows its own tree from the same
+ * position and the root visit counts are added up, so workers never share or lock nodes.
+ * Nodes live in parallel primitive arrays inside a Tree, and Trees are pooled, so after
+ * the first few moves a search allocates almost nothing. Moves are checked with the
+ * board's own incremental win test and blocked-line draw test, the same rules Game uses.
+ * <p>
+ * Like every Player it keeps no per-game state and may be shared between threads.
+ */
+public class MctsPlayer implements Player {
+
+    private static final String USAGE = "Usage: java MctsPlayer [--rows N] [--cols N] [--win K] [--iterations N]"
+            + " [--millis N] [--threads N] [--moves N] [--seed N]";
+    private static final double EXPLORATION = Math.sqrt(2); // UCT exploration constant
+    private static final int TIME_CHECK_INTERVAL = 64;     // Playouts between clock reads
+    private static final int DEFAULT_NODES = 1 << 18;      // Nodes per tree
+
+    private final int iterations;   // Playouts per move across all workers, 0 for no limit
+    private final long millis;      // Time per move, 0 for no limit
+    private final int threads;      // Worker threads per search
+    private final int maxNodes;     // Capacity of each tree
+    private final ForkJoinPool pool; // Workers, or null when searching on the caller's thread
+    private final ConcurrentLinkedQueue<Tree> spareTrees = new ConcurrentLinkedQueue<>();
+
+    // Totals for playouts per second
+    private final LongAdder playouts = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+
+    /**
+     * Creates a single-threaded player that runs a fixed number of playouts per move,
+     * for use inside an already parallel Simulation.
+     *
+     * @param iterations Playouts per move.
+     */
+    public MctsPlayer(int iterations) {
+        this(iterations, 0, 1, DEFAULT_NODES);
+    }
+
+    /**
+     * Creates a player with the given limits. At least one limit must be set; when both
+     * are, the search stops at whichever comes first.
+     *
+     * @param iterations Playouts per move across all workers, or 0 for no limit.
+     * @param millis     Thinking time per move in milliseconds, or 0 for no limit.
+     * @param threads    Worker threads per search; 1 searches on the calling thread.
+     * @param maxNodes   Tree capacity per worker; when full, the tree stops growing but playouts go on.
+     *                   The root and its children always fit, however small this is.
+     * @throws IllegalArgumentException if no limit is set or a value is out of range.
+     */
+    public MctsPlayer(int iterations, long millis, int threads, int maxNodes) {
+        if (iterations < 0 || millis < 0 || (iterations == 0 && millis == 0)) {
+            throw new IllegalArgumentException("Set a playout count or a time limit");
+        }
+        if (threads < 1 || maxNodes < 1) {
+            throw new IllegalArgumentException("Need at least one thread and one node");
+        }
+        this.iterations = iterations;
+        this.millis = millis;
+        this.threads = threads;
+        this.maxNodes = maxNodes;
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null; // Workers are daemon threads
+    }
+
+    @Override
+    public String name() {
+        return "mcts";
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        GameBoard board = game.board();
+        int cells = board.rows() * board.cols();
+        long start = System.nanoTime();
+        long deadline = millis > 0 ? start + millis * 1_000_000 : Long.MAX_VALUE;
+        int perWorker = iterations > 0 ? (iterations + threads - 1) / threads : Integer.MAX_VALUE;
+        int[] visits = new int[cells]; // Root visit counts per cell, summed over workers
+
+        if (pool == null) {
+            addVisits(visits, search(game, random.split(), perWorker, deadline));
+        } else {
+            List<Callable<int[]>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom workerRandom = random.split(); // Split here; generators are not thread-safe
+                workers.add(() -> search(game, workerRandom, perWorker, deadline));
+            }
+            try {
+                for (Future<int[]> result : pool.invokeAll(workers)) {
+                    addVisits(visits, result.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            }
+        }
+        searchNanos.add(System.nanoTime() - start);
+
+        int best = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            if (visits[cell] > 0 && (best < 0 || visits[cell] > visits[best])) {
+                best = cell;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("No moves left: the game is over");
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of playouts run so far by every search of this player.
+     *
+     * @return The running total.
+     */
+    public long playouts() {
+        return playouts.sum();
+    }
+
+    /**
+     * Returns the playout rate over every search so far, counting wall-clock search time.
+     *
+     * @return Playouts per second, or 0 before the first search.
+     */
+    public double playoutsPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : playouts.sum() / (nanos / 1e9);
+    }
+
+    /**
+     * Runs one worker's search from the game's current position.
+     *
+     * @return Visit counts of the root's moves, indexed by cell.
+     */
+    private int[] search(Game game, SplittableRandom random, int limit, long deadline) {
+        GameBoard position = game.board();
+        Tree tree = spareTrees.poll();
+        if (tree == null || !tree.fits(position)) {
+            tree = new Tree(position.rows(), position.cols(), position.winLength(), maxNodes);
+        }
+        try {
+            tree.reset(position, game.currentPlayer());
+            int done = 0;
+            while (done < limit) {
+                tree.playout(random);
+                done++;
+                if (done % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+            playouts.add(done);
+            return tree.rootVisits();
+        } finally {
+            spareTrees.offer(tree);
+        }
+    }
+
+    private static void addVisits(int[] total, int[] visits) {
+        for (int cell = 0; cell < total.length; cell++) {
+            total[cell] += visits[cell];
+        }
+    }
+
+    /**
+     * One worker's search tree. Node i is described by entry i of each array; the
+     * children of a node are created together and stored next to each other.
+     * The root is node 0.
+     */
+    private static final class Tree {
+        final GameBoard board;   // Scratch copy of the position being searched
+        final int cols;
+        final int[] cell;        // Move that leads to the node
+        final int[] firstChild;  // Index of the first child, -1 until expanded
+        final int[] childCount;  // Number of children
+        final int[] visits;      // Playouts through the node
+        final int[] reward;      // Half-points won through the node by the player who made its move
+        final int[] path;        // Nodes visited by the current playout
+        final int[] played;      // Cells placed by the current playout, to undo them
+        final int[] empty;       // Empty cells during a playout
+        int nodeCount;
+        int rootPlayer;          // Player to move at the root
+
+        Tree(int rows, int cols, int winLength, int maxNodes) {
+            board = GameBoard.create(rows, cols, winLength);
+            this.cols = cols;
+            // Without room for every root move, no move would ever get a visit to be chosen by
+            int capacity = Math.max(maxNodes, rows * cols + 1);
+            cell = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            visits = new int[capacity];
+            reward = new int[capacity];
+            path = new int[rows * cols + 1];
+            played = new int[rows * cols];
+            empty = new int[rows * cols];
+        }
+
+        boolean fits(GameBoard position) {
+            return board.rows() == position.rows() && board.cols() == position.cols()
+                    && board.winLength() == position.winLength();
+        }
+
+        /**
+         * Empties the tree and copies a position into the scratch board.
+         */
+        void reset(GameBoard position, int toMove) {
+            board.clear();
+            for (int r = 0; r < board.rows(); r++) {
+                for (int c = 0; c < cols; c++) {
+                    int player = position.get(r, c);
+                    if (player != Board.EMPTY) {
+                        board.place(r, c, player);
+                    }
+                }
+            }
+            rootPlayer = toMove;
+            nodeCount = 1;
+            firstChild[0] = -1;
+            childCount[0] = 0;
+            visits[0] = 0;
+            reward[0] = 0;
+        }
+
+        /**
+         * Runs one selection, expansion, playout and backup, leaving the board as it was.
+         */
+        void playout(SplittableRandom random) {
+            int player = rootPlayer;
+            int node = 0;
+            int depth = 0;
+            int placed = 0;
+            int winner = -1; // Board.X or Board.O for a win, Board.EMPTY for a draw, -1 while undecided
+            path[depth++] = 0;
+
+            // Selection: follow UCT through expanded nodes
+            while (firstChild[node] >= 0 && winner < 0) {
+                node = select(node);
+                played[placed++] = cell[node];
+                path[depth++] = node;
+                winner = move(cell[node], player);
+                player = Board.opponent(player);
+            }
+
+            // Expansion: add every move from a node that has been reached before
+            if (winner < 0 && (node == 0 || visits[node] > 0) && expand(node)) {
+                node = firstChild[node] + random.nextInt(childCount[node]);
+                played[placed++] = cell[node];
+                path[depth++] = node;
+                winner = move(cell[node], player);
+                player = Board.opponent(player);
+            }
+
+            // Playout: random moves until the game is decided
+            if (winner < 0) {
+                int count = collectEmpty();
+                while (winner < 0) {
+                    int i = random.nextInt(count);
+                    int next = empty[i];
+                    empty[i] = empty[--count];
+                    played[placed++] = next;
+                    winner = move(next, player);
+                    player = Board.opponent(player);
+                }
+            }
+
+            // Backup: the node at depth d was reached by a move of the root player when d is odd
+            for (int d = 0; d < depth; d++) {
+                int n = path[d];
+                visits[n]++;
+                int mover = (d & 1) == 1 ? rootPlayer : Board.opponent(rootPlayer);
+                if (winner == mover) {
+                    reward[n] += 2;
+                } else if (winner == Board.EMPTY) {
+                    reward[n] += 1;
+                }
+            }
+            for (int i = placed - 1; i >= 0; i--) {
+                board.undo(played[i] / cols, played[i] % cols);
+            }
+        }
+
+        /**
+         * Places a mark and reports whether it decided the game.
+         *
+         * @return The winner, Board.EMPTY for a draw, or -1 if play goes on.
+         */
+        private int move(int at, int player) {
+            int row = at / cols;
+            int col = at % cols;
+            board.place(row, col, player);
+            if (board.isWinningMove(row, col)) {
+                return player;
+            }
+            return board.hasOpenLine() ? -1 : Board.EMPTY;
+        }
+
+        /**
+         * Picks the child with the highest upper confidence bound; unvisited children come first.
+         */
+        private int select(int node) {
+            int first = firstChild[node];
+            int end = first + childCount[node];
+            double logVisits = Math.log(visits[node]);
+            int best = first;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double score = reward[child] / (2.0 * visits[child])
+                        + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Creates a child for every empty cell.
+         *
+         * @return false if the tree is full, leaving the node unexpanded.
+         */
+        private boolean expand(int node) {
+            int count = collectEmpty();
+            if (count == 0 || nodeCount + count > cell.length) {
+                return false;
+            }
+            firstChild[node] = nodeCount;
+            childCount[node] = count;
+            for (int i = 0; i < count; i++) {
+                int child = nodeCount++;
+                cell[child] = empty[i];
+                firstChild[child] = -1;
+                childCount[child] = 0;
+                visits[child] = 0;
+                reward[child] = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Lists the empty cells of the scratch board in the empty array.
+         *
+         * @return How many there are.
+         */
+        private int collectEmpty() {
+            int count = 0;
+            for (int at = 0; at < empty.length; at++) {
+                if (board.isEmpty(at / cols, at % cols)) {
+                    empty[count++] = at;
+                }
+            }
+            return count;
+        }
+
+        int[] rootVisits() {
+            int[] result = new int[empty.length];
+            for (int child = firstChild[0]; child >= 0 && child < firstChild[0] + childCount[0]; child++) {
+                result[cell[child]] = visits[child];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Measures playouts per second at increasing thread counts by letting the player
+     * make the opening moves of a game against itself.
+     *
+     * @param args Optional settings, see USAGE.
+     */
+    public static void main(String[] args) {
+        int rows = 15;
+        int cols = 15;
+        int winLength = 5;
+        int iterations = 0;
+        long millis = 1000;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int moves = 4;
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--rows":
+                        rows = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cols":
+                        cols = Integer.parseInt(args[++i]);
+                        break;
+                    case "--win":
+                        winLength = Integer.parseInt(args[++i]);
+                        break;
+                    case "--iterations":
+                        iterations = Integer.parseInt(args[++i]);
+                        millis = 0;
+                        break;
+                    case "--millis":
+                        millis = Long.parseLong(args[++i]);
+                        break;
+                    case "--threads":
+                        maxThreads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--moves":
+                        moves = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        System.out.println(rows + "x" + cols + " board, " + winLength + " in a row, " + moves + " moves per run");
+        // 1, 2, 4, ... threads, always ending at the maximum
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            MctsPlayer player = new MctsPlayer(iterations, millis, threads, DEFAULT_NODES);
+            Game game = new Game(rows, cols, winLength);
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < moves && game.status() == Game.Status.IN_PROGRESS; i++) {
+                int cell = player.chooseMove(game, random);
+                game.play(cell / cols, cell % cols);
+            }
+            System.out.printf("%2d threads: %d playouts, %.0f playouts/s%n",
+                    threads, player.playouts(), player.playoutsPerSecond());
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Perfect-play search for Tic Tac Toe.
+ * Uses negamax with alpha-beta pruning and a transposition table indexed by the
+ * board's base-3 key, so every position is searched at most once per JVM for a
+ * given window. The table is shared by all threads: each entry is packed into a
+ * single int, and int writes are atomic, so a racing reader sees either an old
+ * entry or a complete new one, never a mix of both.
+ */
+public class Minimax {
+
+    public static final int WIN_SCORE = 10; // Score of a win; faster wins score higher
+
+    // Transposition table entry layout: | move (4 bits) | flag (2 bits) | value + 16 (5 bits) |
+    private static final int FLAG_NONE = 0;  // Empty entry
+    private static final int FLAG_EXACT = 1; // Value is the true score
+    private static final int FLAG_LOWER = 2; // True score is at least value
+    private static final int FLAG_UPPER = 3; // True score is at most value
+    private static final int VALUE_BIAS = 16;
+    private static final int[] table = new int[Board.KEYS];
+
+    // Center first, then corners, then edges: searches the strongest moves first for earlier cut-offs
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+
+    private Minimax() {
+    }
+
+    /**
+     * Returns the score of a position from the point of view of the player to move.
+     * Positive means the player to move wins with perfect play, negative means they lose, 0 is a draw.
+     *
+     * @param board The position to evaluate. It is left unchanged.
+     * @return The game-theoretic score of the position.
+     */
+    public static int evaluate(Board board) {
+        return search(board, board.playerToMove(), -WIN_SCORE, WIN_SCORE);
+    }
+
+    /**
+     * Returns the best move for the player to move.
+     * Once a position has been solved this is a single table lookup.
+     *
+     * @param board The position to move from. It is left unchanged.
+     * @return The cell index (0-8) of a best move.
+     * @throws IllegalStateException if the game is already over.
+     */
+    public static int bestMove(Board board) {
+        if (board.isFull() || board.isWin(Board.X) || board.isWin(Board.O)) {
+            throw new IllegalStateException("No moves left: the game is over");
+        }
+        int entry = table[board.key()];
+        if (flag(entry) != FLAG_EXACT) {
+            // A full-window search always leaves an exact entry with a move at the root
+            search(board, board.playerToMove(), -WIN_SCORE, WIN_SCORE);
+            entry = table[board.key()];
+        }
+        return move(entry);
+    }
+
+    /**
+     * Negamax search with alpha-beta pruning and transposition table.
+     *
+     * @param board  The position to search; restored before returning.
+     * @param player The player to move.
+     * @param alpha  The lower bound of the search window.
+     * @param beta   The upper bound of the search window.
+     * @return The score of the position for the player to move, clamped to the window.
+     */
+    private static int search(Board board, int player, int alpha, int beta) {
+        int moves = board.moveCount();
+        // The previous move may have ended the game
+        if (board.isWin(Board.opponent(player))) {
+            return -(WIN_SCORE - moves);
+        }
+        if (moves == Board.CELLS) {
+            return 0; // Full board, draw
+        }
+
+        int key = board.key();
+        int entry = table[key];
+        int flag = flag(entry);
+        if (flag != FLAG_NONE) {
+            int value = value(entry);
+            if (flag == FLAG_EXACT
+                    || (flag == FLAG_LOWER && value >= beta)
+                    || (flag == FLAG_UPPER && value <= alpha)) {
+                return value;
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -WIN_SCORE - 1;
+        int bestMove = -1;
+        for (int cell : MOVE_ORDER) {
+            if (!board.isEmpty(cell)) {
+                continue;
+            }
+            board.place(cell, player);
+            int score = -search(board, Board.opponent(player), -beta, -alpha);
+            board.undo(cell);
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break; // The opponent will never allow this line
+            }
+        }
+
+        if (best <= originalAlpha) {
+            flag = FLAG_UPPER;
+        } else if (best >= beta) {
+            flag = FLAG_LOWER;
+        } else {
+            flag = FLAG_EXACT;
+        }
+        table[key] = (bestMove << 7) | (flag << 5) | (best + VALUE_BIAS);
+        return best;
+    }
+
+    private static int flag(int entry) {
+        return (entry >>> 5) & 0b11;
+    }
+
+    private static int value(int entry) {
+        return (entry & 0b11111) - VALUE_BIAS;
+    }
+
+    private static int move(int entry) {
+        return entry >>> 7;
+    }
+}
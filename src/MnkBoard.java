@@ -0,0 +1,232 @@
+import java.util.Arrays;
+
+/**
+ * A board of any size with any win length (an m,n,k-game), such as 15x15 five-in-a-row.
+ * Cells are stored row by row in a byte array. Win detection only walks the four
+ * lines through the last move, so each check costs O(winLength) however large the board is.
+ * For early draw detection every window of winLength cells in a row is a "line"; the board
+ * counts each player's marks per line and how many lines already hold both players' marks.
+ */
+public class MnkBoard implements GameBoard {
+
+    // Directions to scan from the last move: right, down, down-right and down-left.
+    // Each line is walked both ways, so these four cover all eight neighbours.
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COLS = {1, 0, 1, -1};
+
+    private final int rows;      // Number of rows on the board
+    private final int cols;      // Number of columns on the board
+    private final int winLength; // Marks in a row needed to win
+    private final byte[] cells;  // Board.EMPTY, Board.X or Board.O for each cell, row by row
+    private int moveCount;       // Number of occupied cells
+
+    private final int[][] cellLines; // For each cell, the ids of the lines that pass through it
+    private final int[] xCounts;     // X marks on each line
+    private final int[] oCounts;     // O marks on each line
+    private int blockedLines;        // Lines holding marks of both players
+
+    /**
+     * Creates an empty board.
+     *
+     * @param rows      The number of rows (at least 1).
+     * @param cols      The number of columns (at least 1).
+     * @param winLength Marks in a row needed to win, from 1 up to the longer side of the board.
+     * @throws IllegalArgumentException if the dimensions or win length are out of range.
+     */
+    public MnkBoard(int rows, int cols, int winLength) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Board must have at least one row and column: " + rows + "x" + cols);
+        }
+        if (winLength < 1 || winLength > Math.max(rows, cols)) {
+            throw new IllegalArgumentException("Win length " + winLength + " does not fit on a " + rows + "x" + cols + " board");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.cells = new byte[rows * cols];
+
+        this.cellLines = linesThroughCells(rows, cols, winLength);
+        int lineCount = 0;
+        for (int[] lines : cellLines) {
+            for (int line : lines) {
+                lineCount = Math.max(lineCount, line + 1);
+            }
+        }
+        this.xCounts = new int[lineCount];
+        this.oCounts = new int[lineCount];
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int winLength() {
+        return winLength;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) Board.EMPTY);
+        Arrays.fill(xCounts, 0);
+        Arrays.fill(oCounts, 0);
+        moveCount = 0;
+        blockedLines = 0;
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return cells[row * cols + col] == Board.EMPTY;
+    }
+
+    @Override
+    public int get(int row, int col) {
+        return cells[row * cols + col];
+    }
+
+    @Override
+    public void place(int row, int col, int player) {
+        int cell = row * cols + col;
+        cells[cell] = (byte) player;
+        moveCount++;
+        int[] own = player == Board.X ? xCounts : oCounts;
+        int[] other = player == Board.X ? oCounts : xCounts;
+        for (int line : cellLines[cell]) {
+            // The player's first mark on a line the opponent already holds blocks it
+            if (own[line]++ == 0 && other[line] > 0) {
+                blockedLines++;
+            }
+        }
+    }
+
+    @Override
+    public void undo(int row, int col) {
+        int cell = row * cols + col;
+        int player = cells[cell];
+        if (player == Board.EMPTY) {
+            return;
+        }
+        cells[cell] = Board.EMPTY;
+        moveCount--;
+        int[] own = player == Board.X ? xCounts : oCounts;
+        int[] other = player == Board.X ? oCounts : xCounts;
+        for (int line : cellLines[cell]) {
+            // Removing the player's only mark on a blocked line opens it again
+            if (--own[line] == 0 && other[line] > 0) {
+                blockedLines--;
+            }
+        }
+    }
+
+    @Override
+    public boolean isWinningMove(int row, int col) {
+        int player = get(row, col);
+        if (player == Board.EMPTY) {
+            return false;
+        }
+        for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+            // Count the cell itself plus matching marks on either side of it
+            int count = 1
+                    + countFrom(row, col, DIRECTION_ROWS[d], DIRECTION_COLS[d], player)
+                    + countFrom(row, col, -DIRECTION_ROWS[d], -DIRECTION_COLS[d], player);
+            if (count >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if at least one line is still free of one player's marks, so it could be completed.
+     * place() and undo() keep per-line mark counts and the number of blocked lines up to date,
+     * at O(1) per line through the cell, so this is a single comparison.
+     *
+     * @return false once every line of winLength() cells holds both an X and an O.
+     */
+    @Override
+    public boolean hasOpenLine() {
+        return blockedLines < xCounts.length;
+    }
+
+    @Override
+    public int moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public boolean isFull() {
+        return moveCount == cells.length;
+    }
+
+    /**
+     * Counts consecutive marks of a player starting next to a cell and walking in one direction.
+     * Stops after winLength - 1 marks since more cannot change the result.
+     *
+     * @param row    The starting row (not counted).
+     * @param col    The starting column (not counted).
+     * @param dRow   Row step of the direction.
+     * @param dCol   Column step of the direction.
+     * @param player The player whose marks are counted.
+     * @return The number of consecutive marks found.
+     */
+    private int countFrom(int row, int col, int dRow, int dCol, int player) {
+        int count = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+        while (count < winLength - 1 && r >= 0 && r < rows && c >= 0 && c < cols && cells[r * cols + c] == player) {
+            count++;
+            r += dRow;
+            c += dCol;
+        }
+        return count;
+    }
+
+    /**
+     * Numbers every window of winLength cells in a row, in all four directions, and lists
+     * for each cell the windows it belongs to.
+     *
+     * @param rows      Board rows.
+     * @param cols      Board columns.
+     * @param winLength Cells per window.
+     * @return For each cell (row * cols + col), the ids of the windows through it.
+     */
+    private static int[][] linesThroughCells(int rows, int cols, int winLength) {
+        int[] linesPerCell = new int[rows * cols];
+        int[][] cellLines = new int[rows * cols][];
+        for (int pass = 0; pass < 2; pass++) { // The first pass counts, the second fills in
+            int line = 0;
+            for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c < cols; c++) {
+                        int endRow = r + DIRECTION_ROWS[d] * (winLength - 1);
+                        int endCol = c + DIRECTION_COLS[d] * (winLength - 1);
+                        if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) {
+                            continue; // The window would run off the board
+                        }
+                        for (int i = 0; i < winLength; i++) {
+                            int cell = (r + DIRECTION_ROWS[d] * i) * cols + c + DIRECTION_COLS[d] * i;
+                            if (pass == 0) {
+                                linesPerCell[cell]++;
+                            } else {
+                                cellLines[cell][--linesPerCell[cell]] = line;
+                            }
+                        }
+                        line++;
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int cell = 0; cell < cellLines.length; cell++) {
+                    cellLines[cell] = new int[linesPerCell[cell]];
+                }
+            }
+        }
+        return cellLines;
+    }
+}
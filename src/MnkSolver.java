@@ -0,0 +1,268 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Perfect-play search for any m,n,k-game, for boards too big for Minimax's 3x3 table.
+ * Negamax with alpha-beta pruning, like Minimax, but positions are identified by a 64-bit
+ * Zobrist hash and results go into a TranspositionStore. When the store is backed by a
+ * file, everything solved in earlier runs is reused, so solving the same game again (or
+ * any position met before) is mostly table lookups.
+ * Hashes are the same as Game.hash() for the same position and player to move.
+ * A solver is not thread-safe, but several solvers may share one store.
+ */
+public class MnkSolver {
+
+    private static final String USAGE = "Usage: java MnkSolver [--rows N] [--cols N] [--win K] [--store FILE]"
+            + " [--entries N]";
+
+    private final GameBoard board;   // Scratch board the search plays on
+    private final int cols;
+    private final int cells;
+    private final int winScore;      // Score of a win on the first move; faster wins score higher
+    private final long[] zobrist;    // Zobrist keys: [cell * 2 + player - 1]
+    private final long oToMove;      // Mixed into the hash when O is to move
+    private final int[] moveOrder;   // Cells nearest the centre first, for earlier cut-offs
+    private final TranspositionStore store;
+    private long hash;               // Zobrist hash of the scratch board
+    private long nodes;              // Positions searched, for reports
+
+    /**
+     * Creates a solver for one board size.
+     *
+     * @param rows      Board rows.
+     * @param cols      Board columns.
+     * @param winLength Marks in a row needed to win.
+     * @param store     Where results are kept; it must belong to the same board size.
+     */
+    public MnkSolver(int rows, int cols, int winLength, TranspositionStore store) {
+        this.board = GameBoard.create(rows, cols, winLength);
+        this.cols = cols;
+        this.cells = rows * cols;
+        this.winScore = cells + 1;
+        this.store = store;
+
+        zobrist = Zobrist.keys(cells);
+        oToMove = zobrist[cells * 2];
+
+        double centreRow = (rows - 1) / 2.0;
+        double centreCol = (cols - 1) / 2.0;
+        moveOrder = new int[cells];
+        Integer[] order = new Integer[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            order[cell] = cell;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(
+                (Integer cell) -> Math.abs(cell / cols - centreRow) + Math.abs(cell % cols - centreCol)));
+        for (int i = 0; i < cells; i++) {
+            moveOrder[i] = order[i];
+        }
+    }
+
+    /**
+     * Returns the score of a position with perfect play, from the point of view of the
+     * player to move: positive wins (sooner is higher), negative loses, 0 draws.
+     *
+     * @param position The position; it is not changed.
+     * @param toMove   Board.X or Board.O.
+     * @return The game-theoretic score.
+     * @throws IllegalStateException if the game is already over.
+     */
+    public int evaluate(GameBoard position, int toMove) {
+        load(position);
+        return search(toMove, -winScore, winScore);
+    }
+
+    /**
+     * Returns a best move for the player to move.
+     *
+     * @param position The position; it is not changed.
+     * @param toMove   Board.X or Board.O.
+     * @return The cell as row * cols + col.
+     * @throws IllegalStateException if the game is already over.
+     */
+    public int bestMove(GameBoard position, int toMove) {
+        load(position);
+        long key = hash ^ (toMove == Board.O ? oToMove : 0);
+        long entry = store.probe(key);
+        if (entry == 0 || TranspositionStore.flag(entry) != TranspositionStore.FLAG_EXACT
+                || TranspositionStore.move(entry) < 0) {
+            // A full-window search leaves an exact entry with a move at the root
+            search(toMove, -winScore, winScore);
+            entry = store.probe(key);
+        }
+        return TranspositionStore.move(entry);
+    }
+
+    /**
+     * Returns how many positions have been searched so far, not counting store hits.
+     *
+     * @return The running total.
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Copies a position onto the scratch board and hashes it.
+     */
+    private void load(GameBoard position) {
+        if (position.rows() * position.cols() != cells || position.cols() != cols
+                || position.winLength() != board.winLength()) {
+            throw new IllegalArgumentException("The position is for a different board size");
+        }
+        board.clear();
+        hash = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int player = position.get(cell / cols, cell % cols);
+            if (player != Board.EMPTY) {
+                board.place(cell / cols, cell % cols, player);
+                hash ^= zobrist[cell * 2 + player - 1];
+            }
+        }
+        if (!board.hasOpenLine() || board.isFull()) {
+            throw new IllegalStateException("No moves left: the game is over");
+        }
+    }
+
+    /**
+     * Negamax search with alpha-beta pruning over the store.
+     * The position must not be decided yet; moves that end the game are scored on the spot.
+     *
+     * @param player The player to move.
+     * @param alpha  The lower bound of the search window.
+     * @param beta   The upper bound of the search window.
+     * @return The score for the player to move, clamped to the window.
+     */
+    private int search(int player, int alpha, int beta) {
+        nodes++;
+        long key = hash ^ (player == Board.O ? oToMove : 0);
+        int empty = cells - board.moveCount();
+        int firstMove = -1;
+        long entry = store.probe(key);
+        if (entry != 0) {
+            int value = TranspositionStore.value(entry);
+            int flag = TranspositionStore.flag(entry);
+            if (flag == TranspositionStore.FLAG_EXACT
+                    || (flag == TranspositionStore.FLAG_LOWER && value >= beta)
+                    || (flag == TranspositionStore.FLAG_UPPER && value <= alpha)) {
+                return value;
+            }
+            firstMove = TranspositionStore.move(entry); // Still the best guess to try first
+        }
+
+        int originalAlpha = alpha;
+        int best = -winScore - 1;
+        int bestMove = -1;
+        for (int i = -1; i < cells; i++) {
+            int cell = i < 0 ? firstMove : moveOrder[i];
+            if (cell < 0 || (i >= 0 && cell == firstMove)) {
+                continue;
+            }
+            int row = cell / cols;
+            int col = cell % cols;
+            if (!board.isEmpty(row, col)) {
+                continue;
+            }
+            board.place(row, col, player);
+            hash ^= zobrist[cell * 2 + player - 1];
+            int score;
+            if (board.isWinningMove(row, col)) {
+                score = winScore - board.moveCount(); // This move wins
+            } else if (!board.hasOpenLine()) {
+                score = 0; // Nobody can win any more
+            } else {
+                score = -search(Board.opponent(player), -beta, -alpha);
+            }
+            hash ^= zobrist[cell * 2 + player - 1];
+            board.undo(row, col);
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break; // The opponent will never allow this line
+            }
+        }
+
+        int flag;
+        if (best <= originalAlpha) {
+            flag = TranspositionStore.FLAG_UPPER;
+        } else if (best >= beta) {
+            flag = TranspositionStore.FLAG_LOWER;
+        } else {
+            flag = TranspositionStore.FLAG_EXACT;
+        }
+        store.store(key, best, bestMove, empty, flag);
+        return best;
+    }
+
+    /**
+     * Solves the empty board of an m,n,k-game, reusing and extending a store file.
+     *
+     * @param args Optional settings, see USAGE.
+     * @throws IOException if the store file cannot be used.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = 4;
+        int cols = 4;
+        int winLength = 3;
+        String file = null;
+        long entries = 1 << 22;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--rows":
+                        rows = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cols":
+                        cols = Integer.parseInt(args[++i]);
+                        break;
+                    case "--win":
+                        winLength = Integer.parseInt(args[++i]);
+                        break;
+                    case "--store":
+                        file = args[++i];
+                        break;
+                    case "--entries":
+                        entries = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+        if (file == null) {
+            file = "positions-" + rows + "x" + cols + "x" + winLength + ".tts";
+        }
+
+        try (TranspositionStore store = new TranspositionStore(Paths.get(file), rows, cols, winLength, entries)) {
+            System.out.println(file + ": " + store.count() + " of " + store.capacity() + " entries in use");
+            MnkSolver solver = new MnkSolver(rows, cols, winLength, store);
+            GameBoard empty = GameBoard.create(rows, cols, winLength);
+            long start = System.nanoTime();
+            int score = solver.evaluate(empty, Board.X);
+            int move = solver.bestMove(empty, Board.X);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            String result;
+            if (score > 0) {
+                result = "X wins by move " + (solver.winScore - score);
+            } else if (score < 0) {
+                result = "O wins by move " + (solver.winScore + score);
+            } else {
+                result = "draw";
+            }
+            System.out.printf("%dx%d, %d in a row: %s with perfect play; best first move row %d, column %d%n",
+                    rows, cols, winLength, result, move / cols + 1, move % cols + 1);
+            System.out.printf("%d positions searched in %.3f s; %d entries in use%n",
+                    solver.nodes(), seconds, store.count());
+        }
+    }
+}
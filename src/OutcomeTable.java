@@ -0,0 +1,257 @@
+import java.util.Arrays;
+
+/**
+ * Every reachable Tic Tac Toe position, solved once at class load.
+ * Positions are folded together under the 8 symmetries of the board (4 rotations,
+ * each optionally mirrored), which leaves 765 distinct positions. For each of those
+ * the table keeps the outcome for the player to move and the set of best moves.
+ * A per-key index records which canonical position a board maps to and through
+ * which symmetry, so an evaluation or AI move is a couple of array loads.
+ */
+public class OutcomeTable {
+
+    // Outcomes from the point of view of the player to move
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+
+    private static final int SYMMETRIES = 8;
+    private static final int NOT_REACHABLE = -1;
+
+    // SYMMETRY[s][cell] is where a cell ends up after applying symmetry s
+    private static final int[][] SYMMETRY = new int[SYMMETRIES][Board.CELLS];
+    // FROM_CANONICAL[s][mask] maps a cell mask in the canonical frame back through symmetry s
+    private static final short[][] FROM_CANONICAL = new short[SYMMETRIES][1 << Board.CELLS];
+
+    // Per board key: canonical index in the low 10 bits, symmetry in the next 3; NOT_REACHABLE if unreachable
+    private static final short[] INDEX = new short[Board.KEYS];
+    // Per canonical position: outcome for the player to move and the best moves as a cell mask
+    private static final byte[] OUTCOME = new byte[1024];
+    private static final short[] BEST_MOVES = new short[1024];
+    private static int size; // Number of canonical positions
+
+    static {
+        buildSymmetries();
+        Arrays.fill(INDEX, (short) NOT_REACHABLE);
+        int[] canonicalIndex = new int[Board.KEYS];
+        Arrays.fill(canonicalIndex, NOT_REACHABLE);
+        enumerate(new Board(), Board.X, canonicalIndex);
+    }
+
+    private OutcomeTable() {
+    }
+
+    /**
+     * Returns the outcome of a position with perfect play from both sides.
+     *
+     * @param board A reachable position.
+     * @return WIN, DRAW or LOSS for the player to move.
+     * @throws IllegalArgumentException if the position cannot arise in a real game.
+     */
+    public static int outcome(Board board) {
+        return OUTCOME[entry(board.key()) & 0x3FF];
+    }
+
+    /**
+     * Returns every best move for the player to move. Best means it keeps the
+     * perfect-play outcome, and among winning moves, wins soonest.
+     *
+     * @param board A reachable position.
+     * @return A mask with bit (row * 3 + col) set for each best move; 0 if the game is over.
+     * @throws IllegalArgumentException if the position cannot arise in a real game.
+     */
+    public static int bestMoves(Board board) {
+        int entry = entry(board.key());
+        return FROM_CANONICAL[entry >>> 10][BEST_MOVES[entry & 0x3FF]];
+    }
+
+    /**
+     * Returns every best move for a given player to move, which also covers games
+     * where O moved first: such a position is looked up with the colours swapped,
+     * which does not change the best moves.
+     *
+     * @param board  A position reachable with either player starting.
+     * @param toMove Board.X or Board.O, whoever moves next.
+     * @return A mask with bit (row * 3 + col) set for each best move; 0 if the game is over.
+     * @throws IllegalArgumentException if the position cannot arise in a real game.
+     */
+    public static int bestMoves(Board board, int toMove) {
+        int entry = entry(board.playerToMove() == toMove ? board.key() : board.swappedKey());
+        return FROM_CANONICAL[entry >>> 10][BEST_MOVES[entry & 0x3FF]];
+    }
+
+    /**
+     * Returns one best move for the player to move.
+     *
+     * @param board A reachable position.
+     * @return The cell index (0-8) of the lowest-numbered best move.
+     * @throws IllegalStateException    if the game is already over.
+     * @throws IllegalArgumentException if the position cannot arise in a real game.
+     */
+    public static int bestMove(Board board) {
+        int moves = bestMoves(board);
+        if (moves == 0) {
+            throw new IllegalStateException("No moves left: the game is over");
+        }
+        return Integer.numberOfTrailingZeros(moves);
+    }
+
+    /**
+     * Checks if a position can arise in a real game with X moving first: the counts of
+     * marks fit and nobody played on after the game was won.
+     *
+     * @param board Any position.
+     * @return true if outcome() and bestMoves() accept the position.
+     */
+    public static boolean isReachable(Board board) {
+        return INDEX[board.key()] != NOT_REACHABLE;
+    }
+
+    /**
+     * Returns how many distinct positions remain after symmetry reduction.
+     *
+     * @return The number of canonical positions in the table.
+     */
+    public static int size() {
+        return size;
+    }
+
+    private static int entry(int key) {
+        int entry = INDEX[key];
+        if (entry == NOT_REACHABLE) {
+            throw new IllegalArgumentException("Position cannot arise in a real game");
+        }
+        return entry;
+    }
+
+    /**
+     * Fills SYMMETRY and FROM_CANONICAL with the 4 rotations and their mirror images.
+     */
+    private static void buildSymmetries() {
+        for (int s = 0; s < SYMMETRIES; s++) {
+            for (int r = 0; r < Board.ROWS; r++) {
+                for (int c = 0; c < Board.COLS; c++) {
+                    int row = r;
+                    int col = c;
+                    for (int turn = 0; turn < s % 4; turn++) { // Rotate 90 degrees clockwise
+                        int oldRow = row;
+                        row = col;
+                        col = Board.COLS - 1 - oldRow;
+                    }
+                    if (s >= 4) { // Mirror left to right
+                        col = Board.COLS - 1 - col;
+                    }
+                    SYMMETRY[s][Board.cell(r, c)] = Board.cell(row, col);
+                }
+            }
+            // Canonical cell SYMMETRY[s][cell] came from cell, so map each set bit back
+            for (int mask = 0; mask < (1 << Board.CELLS); mask++) {
+                int original = 0;
+                for (int cell = 0; cell < Board.CELLS; cell++) {
+                    if ((mask & (1 << SYMMETRY[s][cell])) != 0) {
+                        original |= 1 << cell;
+                    }
+                }
+                FROM_CANONICAL[s][mask] = (short) original;
+            }
+        }
+    }
+
+    /**
+     * Walks every position reachable from the given one and records it in the table.
+     *
+     * @param board          The current position; restored before returning.
+     * @param player         The player to move.
+     * @param canonicalIndex Table index already assigned to each canonical key.
+     */
+    private static void enumerate(Board board, int player, int[] canonicalIndex) {
+        if (INDEX[board.key()] != NOT_REACHABLE) {
+            return; // Already reached through another move order
+        }
+
+        // Find the symmetry that gives the smallest key; that key stands for the whole family
+        int bestSymmetry = 0;
+        int canonicalKey = Integer.MAX_VALUE;
+        for (int s = 0; s < SYMMETRIES; s++) {
+            int key = transformedKey(board, s);
+            if (key < canonicalKey) {
+                canonicalKey = key;
+                bestSymmetry = s;
+            }
+        }
+        if (canonicalIndex[canonicalKey] == NOT_REACHABLE) {
+            canonicalIndex[canonicalKey] = size;
+            solve(board, player, bestSymmetry, size++);
+        }
+        INDEX[board.key()] = (short) (canonicalIndex[canonicalKey] | (bestSymmetry << 10));
+
+        if (board.isWin(Board.opponent(player)) || board.isFull()) {
+            return; // Game over, nothing further is reachable
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.isEmpty(cell)) {
+                board.place(cell, player);
+                enumerate(board, Board.opponent(player), canonicalIndex);
+                board.undo(cell);
+            }
+        }
+    }
+
+    /**
+     * Solves a position with Minimax and stores its outcome and best moves in the canonical frame.
+     *
+     * @param board     The position to solve; restored before returning.
+     * @param player    The player to move.
+     * @param symmetry  The symmetry that maps this position onto its canonical form.
+     * @param index     The canonical table slot to fill.
+     */
+    private static void solve(Board board, int player, int symmetry, int index) {
+        if (board.isWin(Board.opponent(player))) {
+            OUTCOME[index] = LOSS;
+            return;
+        }
+        if (board.isFull()) {
+            OUTCOME[index] = DRAW;
+            return;
+        }
+        int best = Integer.MIN_VALUE;
+        int moves = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (!board.isEmpty(cell)) {
+                continue;
+            }
+            board.place(cell, player);
+            int score = -Minimax.evaluate(board);
+            board.undo(cell);
+            int canonicalBit = 1 << SYMMETRY[symmetry][cell];
+            if (score > best) {
+                best = score;
+                moves = canonicalBit;
+            } else if (score == best) {
+                moves |= canonicalBit;
+            }
+        }
+        OUTCOME[index] = (byte) Integer.signum(best);
+        BEST_MOVES[index] = (short) moves;
+    }
+
+    /**
+     * Computes the base-3 key the board would have after applying a symmetry.
+     *
+     * @param board    The position.
+     * @param symmetry The symmetry to apply.
+     * @return The key of the transformed position.
+     */
+    private static int transformedKey(Board board, int symmetry) {
+        int key = 0;
+        for (int cell = Board.CELLS - 1; cell >= 0; cell--) {
+            // Find which cell lands here after the transform and read its mark
+            int source = 0;
+            while (SYMMETRY[symmetry][source] != cell) {
+                source++;
+            }
+            key = key * 3 + board.get(source);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,31 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays perfectly on the classic 3x3 board by looking moves up in the OutcomeTable.
+ * When several moves are equally good one is picked at random, so games vary.
+ */
+public class PerfectPlayer implements Player {
+
+    @Override
+    public String name() {
+        return "perfect";
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the game is not classic 3x3 Tic Tac Toe.
+     */
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        if (!(game.board() instanceof Board)) {
+            throw new IllegalArgumentException("The perfect player only plays the classic 3x3 game");
+        }
+        int moves = OutcomeTable.bestMoves((Board) game.board(), game.currentPlayer());
+        // Skip a random number of the best moves, then take the next one
+        for (int skip = random.nextInt(Integer.bitCount(moves)); skip > 0; skip--) {
+            moves &= moves - 1; // Clear the lowest set bit
+        }
+        return Integer.numberOfTrailingZeros(moves);
+    }
+}
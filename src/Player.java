@@ -0,0 +1,26 @@
+import java.util.SplittableRandom;
+
+/**
+ * A strategy that picks moves for whichever side is to move in a Game.
+ * Implementations must not keep per-game state, so one instance can be shared by
+ * every game and thread; any randomness comes from the generator passed in.
+ */
+public interface Player {
+
+    /**
+     * Returns a short name for reports, such as "random" or "perfect".
+     *
+     * @return The strategy name.
+     */
+    String name();
+
+    /**
+     * Chooses a move for the current player. The game's board may be used for
+     * trial moves but must be left as it was found.
+     *
+     * @param game   A game that is still in progress.
+     * @param random The calling thread's random number generator.
+     * @return The chosen cell as row * cols + col; it must be a valid move.
+     */
+    int chooseMove(Game game, SplittableRandom random);
+}
@@ -0,0 +1,395 @@
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch analysis of 3x3 positions: "who wins from here, and with which moves?" for every
+ * board in a file, such as positions taken from logs.
+ * <p>
+ * Each input line is one board: nine cells in row-major order, each ' ', 'X' or 'O' as in
+ * the original String board array, e.g. "X O  X   ". X is assumed to have moved first, so
+ * X must have as many marks as O or one more. Each output line is the board followed by
+ * tab-separated fields, in input order:
+ * <pre>
+ *   board  next  result  best moves       e.g. "X O  X   \tO\tdraw\t2,1 2,2"
+ *   board  -     result  -                 when the game is already over
+ *   board  invalid  reason                 for lines that are not a legal position
+ * </pre>
+ * Lines longer than MAX_LINE_BYTES cannot be boards; only their start is echoed, followed by "...".
+ * The result is the outcome with perfect play from both sides; best moves are every
+ * "row,column" (from 1) that keeps it, as OutcomeTable defines them.
+ * <p>
+ * There are only 3^9 boards, so the text printed for each is worked out once up front and
+ * analysing a line is a table lookup and a copy. The input is read in chunks of whole lines
+ * that a ForkJoinPool analyses in parallel, and the results are written in input order.
+ * Only a few fixed-size chunks per worker are in flight at once and their buffers are reused,
+ * and over-long lines are skipped rather than buffered, so memory stays bounded however large
+ * the input is.
+ */
+public class PositionAnalyzer {
+
+    private static final String USAGE = "Usage: java PositionAnalyzer [--threads N] [--out FILE] FILE|-";
+    private static final int CHUNK_BYTES = 1 << 18;   // Input read per task
+    private static final int CHUNKS_PER_THREAD = 2;   // Chunks in flight per worker; bounds memory
+    private static final int MAX_SUFFIX_BYTES = 64;   // Longer than any text printed after a board
+    private static final int MAX_LINE_BYTES = 64;     // Longer lines are cut to this much in the output
+
+    // DIGIT[b] is the base-3 digit of a cell character (as in Board keys), or -1 if b is not a cell
+    private static final byte[] DIGIT = new byte[256];
+    private static final byte[] BAD_LENGTH = "\tinvalid\texpected 9 cells\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BAD_CELL = "\tinvalid\tcells must be ' ', 'X' or 'O'\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOO_LONG = "...\tinvalid\tline too long\n".getBytes(StandardCharsets.US_ASCII);
+    // SUFFIX[key] is everything printed after the board with that key, up to and including the newline
+    private static final byte[][] SUFFIX;
+    // LEGAL[key] is true if the board with that key is a legal position
+    private static final boolean[] LEGAL;
+
+    static {
+        Arrays.fill(DIGIT, (byte) -1);
+        DIGIT[' '] = Board.EMPTY;
+        DIGIT['X'] = Board.X;
+        DIGIT['O'] = Board.O;
+        // Filled through locals, as in Board, so the loop is not held back by class initialization
+        byte[][] suffix = new byte[Board.KEYS][];
+        boolean[] legal = new boolean[Board.KEYS];
+        Board board = new Board();
+        for (int key = 0; key < Board.KEYS; key++) {
+            board.clear();
+            for (int cell = 0, rest = key; cell < Board.CELLS; cell++, rest /= 3) {
+                if (rest % 3 != Board.EMPTY) {
+                    board.place(cell, rest % 3);
+                }
+            }
+            String fields = describe(board);
+            suffix[key] = ("\t" + fields + "\n").getBytes(StandardCharsets.US_ASCII);
+            legal[key] = !fields.startsWith("invalid");
+        }
+        SUFFIX = suffix;
+        LEGAL = legal;
+    }
+
+    private final int threads;
+    private final ForkJoinPool pool; // Shared by every analyze() call
+    private final ArrayDeque<Chunk> free = new ArrayDeque<>(); // Written out, ready for reuse by any call
+    private long positions; // Lines analysed so far
+    private long invalid;   // Lines that were not a legal position
+
+    /**
+     * Creates an analyser. Its worker pool and chunk buffers are kept for every call to analyze(),
+     * so analysing many small inputs does not start threads or allocate buffers each time.
+     * An analyser is not thread-safe.
+     *
+     * @param threads How many worker threads to use.
+     * @throws IllegalArgumentException if threads is less than 1.
+     */
+    public PositionAnalyzer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads); // Workers are daemon threads and end when idle
+    }
+
+    /**
+     * Analyses every line of the input and writes one result line per input line, in order.
+     * Neither stream is closed.
+     *
+     * @param in  The boards, one per line; "\r\n" line ends are accepted.
+     * @param out Where the results go.
+     * @throws IOException if reading or writing fails.
+     */
+    public void analyze(InputStream in, OutputStream out) throws IOException {
+        ArrayDeque<Chunk> pending = new ArrayDeque<>(); // Submitted, in input order
+        Chunk chunk = free.isEmpty() ? new Chunk() : free.poll();
+        boolean done = false;
+        while (!done) {
+            // Fill the chunk; it may already start with the end of a line from the last one
+            int n = 0;
+            while (chunk.inLength < chunk.in.length
+                    && (n = in.read(chunk.in, chunk.inLength, chunk.in.length - chunk.inLength)) >= 0) {
+                chunk.inLength += n;
+            }
+            done = n < 0;
+            int lineEnd = chunk.inLength;
+            if (!done) {
+                while (lineEnd > 0 && chunk.in[lineEnd - 1] != '\n') {
+                    lineEnd--;
+                }
+                if (lineEnd == 0) {
+                    // One line fills the whole buffer: keep just enough of it to report, skip the rest
+                    chunk.inLength = skipRestOfLine(in, chunk.in, MAX_LINE_BYTES + 1);
+                    continue;
+                }
+            }
+
+            // Take a free chunk for the next read, or wait for the oldest one to finish
+            Chunk next;
+            if (!free.isEmpty()) {
+                next = free.poll();
+            } else if (pending.size() + 1 < threads * CHUNKS_PER_THREAD) {
+                next = new Chunk();
+            } else {
+                next = write(pending.poll(), out);
+            }
+            // Carry the unfinished last line over to the next chunk
+            int carry = chunk.inLength - lineEnd;
+            System.arraycopy(chunk.in, lineEnd, next.in, 0, carry);
+            next.inLength = carry;
+            chunk.inLength = lineEnd;
+
+            pool.execute(chunk);
+            pending.add(chunk);
+            chunk = next;
+
+            // Write out whatever has already finished, so the output keeps flowing
+            while (!pending.isEmpty() && pending.peek().isDone()) {
+                free.add(write(pending.poll(), out));
+            }
+        }
+        while (!pending.isEmpty()) {
+            free.add(write(pending.poll(), out));
+        }
+        free.add(chunk); // The chunk readied for a next read that never came; it is empty
+        out.flush();
+    }
+
+    /**
+     * Discards input up to the end of the current line and ends the kept part of the line
+     * with a newline, so the line can be reported without buffering all of it.
+     *
+     * @param in     The input, positioned inside the line.
+     * @param buffer The chunk buffer; the first kept bytes are the start of the line.
+     * @param kept   How many bytes of the line to keep.
+     * @return How many bytes of the buffer are now in use: the kept bytes, the newline,
+     *         and any input read after the line.
+     * @throws IOException if reading fails.
+     */
+    private static int skipRestOfLine(InputStream in, byte[] buffer, int kept) throws IOException {
+        while (true) {
+            int n = in.read(buffer, kept, buffer.length - kept);
+            if (n < 0) {
+                buffer[kept] = '\n'; // The input ended inside the line
+                return kept + 1;
+            }
+            for (int i = kept; i < kept + n; i++) {
+                if (buffer[i] == '\n') {
+                    // Move what follows the line up against the kept part
+                    int after = kept + n - (i + 1);
+                    System.arraycopy(buffer, i + 1, buffer, kept + 1, after);
+                    buffer[kept] = '\n';
+                    return kept + 1 + after;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for a chunk, writes its results and readies it for reuse.
+     *
+     * @param chunk The oldest chunk in flight.
+     * @param out   Where the results go.
+     * @return The same chunk, empty.
+     * @throws IOException if writing fails.
+     */
+    private Chunk write(Chunk chunk, OutputStream out) throws IOException {
+        chunk.join();
+        out.write(chunk.out, 0, chunk.outLength);
+        positions += chunk.positions;
+        invalid += chunk.invalid;
+        chunk.reinitialize();
+        chunk.inLength = 0;
+        return chunk;
+    }
+
+    /**
+     * Returns how many lines have been analysed so far.
+     *
+     * @return The running total, including invalid lines.
+     */
+    public long positions() {
+        return positions;
+    }
+
+    /**
+     * Returns how many lines were not a legal position.
+     *
+     * @return The running total.
+     */
+    public long invalid() {
+        return invalid;
+    }
+
+    /**
+     * Works out the fields printed for one board.
+     *
+     * @param board Any 3x3 position.
+     * @return The tab-separated fields, without the board.
+     */
+    private static String describe(Board board) {
+        int xCount = Integer.bitCount(board.bits(Board.X));
+        int oCount = Integer.bitCount(board.bits(Board.O));
+        if (xCount != oCount && xCount != oCount + 1) {
+            return "invalid\tX must have as many marks as O, or one more";
+        }
+        if (!OutcomeTable.isReachable(board)) {
+            return "invalid\tplay went on after the game was won";
+        }
+        switch (board.state()) {
+            case Board.X_WON:
+                return "-\tX wins\t-";
+            case Board.O_WON:
+                return "-\tO wins\t-";
+            case Board.DRAWN:
+                return "-\tdraw\t-";
+            default:
+                break;
+        }
+
+        int toMove = board.playerToMove();
+        int outcome = OutcomeTable.outcome(board);
+        String result;
+        if (outcome == OutcomeTable.DRAW) {
+            result = "draw";
+        } else {
+            result = Board.symbol(outcome == OutcomeTable.WIN ? toMove : Board.opponent(toMove)) + " wins";
+        }
+        StringBuilder moves = new StringBuilder();
+        for (int bits = OutcomeTable.bestMoves(board); bits != 0; bits &= bits - 1) {
+            int cell = Integer.numberOfTrailingZeros(bits);
+            if (moves.length() > 0) {
+                moves.append(' ');
+            }
+            moves.append(cell / Board.COLS + 1).append(',').append(cell % Board.COLS + 1);
+        }
+        return Board.symbol(toMove) + "\t" + result + "\t" + moves;
+    }
+
+    /**
+     * A block of whole input lines and the results for them. Chunks are reused once written.
+     */
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        byte[] in = new byte[CHUNK_BYTES];
+        int inLength;
+        byte[] out = new byte[CHUNK_BYTES * 4]; // Grows if a chunk has many short lines, to at most 65 times CHUNK_BYTES
+        int outLength;
+        long positions;
+        long invalid;
+
+        @Override
+        protected void compute() {
+            outLength = 0;
+            positions = 0;
+            invalid = 0;
+            int start = 0;
+            while (start < inLength) {
+                int end = start;
+                while (end < inLength && in[end] != '\n') {
+                    end++;
+                }
+                analyzeLine(start, end);
+                start = end + 1;
+            }
+        }
+
+        /**
+         * Appends the result line for in[start, end).
+         */
+        private void analyzeLine(int start, int end) {
+            if (end > start && in[end - 1] == '\r') {
+                end--;
+            }
+            int length = end - start;
+            int echo = Math.min(length, MAX_LINE_BYTES);
+            if (outLength + echo + MAX_SUFFIX_BYTES > out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            System.arraycopy(in, start, out, outLength, echo);
+            outLength += echo;
+            positions++;
+
+            byte[] suffix;
+            if (length > MAX_LINE_BYTES) {
+                suffix = TOO_LONG;
+                invalid++;
+            } else if (length != Board.CELLS) {
+                suffix = BAD_LENGTH;
+                invalid++;
+            } else {
+                // Build the Board key, last cell first; any bad character makes "bad" negative
+                int key = 0;
+                int bad = 0;
+                for (int i = end - 1; i >= start; i--) {
+                    int digit = DIGIT[in[i] & 0xFF];
+                    bad |= digit;
+                    key = key * 3 + digit;
+                }
+                if (bad < 0) {
+                    suffix = BAD_CELL;
+                    invalid++;
+                } else {
+                    suffix = SUFFIX[key];
+                    if (!LEGAL[key]) {
+                        invalid++;
+                    }
+                }
+            }
+            System.arraycopy(suffix, 0, out, outLength, suffix.length);
+            outLength += suffix.length;
+        }
+    }
+
+    /**
+     * Analyses a file of boards and prints the results, then a summary on standard error.
+     *
+     * @param args Optional settings and the input file ("-" for standard input), see USAGE.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outFile = null;
+        String inFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = args[++i];
+                        break;
+                    default:
+                        if (inFile != null || args[i].startsWith("--")) {
+                            throw new IllegalArgumentException(USAGE);
+                        }
+                        inFile = args[i];
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+        if (inFile == null) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        PositionAnalyzer analyzer = new PositionAnalyzer(threads);
+        long start = System.nanoTime();
+        try (InputStream in = inFile.equals("-") ? new FileInputStream(FileDescriptor.in) : new FileInputStream(inFile);
+             OutputStream out = outFile == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(outFile)) {
+            analyzer.analyze(in, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d positions (%d invalid) in %.3f s: %.2f million positions/s (threads: %d)%n",
+                analyzer.positions(), analyzer.invalid(), seconds, analyzer.positions() / seconds / 1e6, threads);
+    }
+}
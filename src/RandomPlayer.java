@@ -0,0 +1,27 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays a uniformly random empty cell.
+ */
+public class RandomPlayer implements Player {
+
+    @Override
+    public String name() {
+        return "random";
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        GameBoard board = game.board();
+        int cols = board.cols();
+        int cells = board.rows() * cols;
+        // Pick the n-th empty cell, where n is uniform over the empty cells
+        int n = random.nextInt(cells - board.moveCount());
+        for (int cell = 0; cell < cells; cell++) {
+            if (board.isEmpty(cell / cols, cell % cols) && n-- == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("No empty cells left");
+    }
+}
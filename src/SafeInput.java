@@ -121,6 +121,43 @@ public class SafeInput {
         return retInt; // Return the valid integer
     }
 
+    /**
+     * Reads an integer within a specified inclusive range from scripted input.
+     * Works like the Scanner version, but the prompt is only printed if the FastInput
+     * asks for prompts, and parsing is done without regular expressions.
+     *
+     * @param pipe   The FastInput to read from.
+     * @param prompt The message displayed before input, if prompts are shown.
+     * @param low    The lower bound of the inclusive range.
+     * @param high   The upper bound of the inclusive range.
+     * @return A valid integer within the specified range.
+     * @throws java.util.NoSuchElementException if the input runs out first.
+     */
+    public static int getRangedInt(FastInput pipe, String prompt, int low, int high) {
+        int retInt = 0;   // Variable to store the valid integer
+        boolean done = false; // Flag to control the input loop
+
+        do {
+            if (pipe.showPrompts()) {
+                System.out.print("\n" + prompt + " [" + low + " - " + high + "]: ");
+            }
+            if (pipe.nextIntLine()) { // Read a token and the rest of its line
+                retInt = pipe.lastInt();
+
+                // Check if the integer is within the specified range
+                if (retInt >= low && retInt <= high) {
+                    done = true; // Set done to true as valid input was received
+                } else {
+                    System.out.println("Input is out of range. Please enter a value between " + low + " and " + high + ".");
+                }
+            } else {
+                System.out.println("Invalid input: '" + pipe.rejected() + "'. Please enter an integer.");
+            }
+        } while (!done); // Continue looping until a valid integer within the range is received
+
+        return retInt; // Return the valid integer
+    }
+
     /**
      * Prompts the user for a double within a specified inclusive range.
      * The method will loop until a valid double within the range is entered.
@@ -190,6 +227,31 @@ public class SafeInput {
         return confirmation; // Return the boolean confirmation
     }
 
+    /**
+     * Reads a Yes or No [Y/N] answer from scripted input, returning true for yes and false for no.
+     * Works like the Scanner version, but the prompt is only printed if the FastInput asks for prompts.
+     *
+     * @param pipe   The FastInput to read from.
+     * @param prompt The message displayed before input, if prompts are shown.
+     * @return true if 'Y' or 'y' is read, false if 'N' or 'n' is read.
+     * @throws java.util.NoSuchElementException if the input runs out first.
+     */
+    public static boolean getYNConfirm(FastInput pipe, String prompt) {
+        int answer; // 1 for yes, 0 for no, -1 for anything else
+
+        do {
+            if (pipe.showPrompts()) {
+                System.out.print("\n" + prompt + " [Y/N]: "); // Display the prompt with [Y/N]
+            }
+            answer = pipe.nextYesNoLine(); // Read the entire line of input
+            if (answer < 0) {
+                System.out.println("Invalid input: '" + pipe.rejected() + "'. Please enter 'Y' or 'N'.");
+            }
+        } while (answer < 0); // Continue looping until a valid Y/N response is received
+
+        return answer == 1; // Return the boolean confirmation
+    }
+
     /**
      * Prompts the user to input a String that matches a given regular expression pattern.
      * The method will loop until a valid string matching the pattern is entered.
@@ -226,12 +288,15 @@ public class SafeInput {
     public static void prettyHeader(String msg) {
         final int HEADER_WIDTH = 60;
         final int ASTERISKS_PER_SIDE = 3; // Three asterisks on each side of the message
+        final String NEW_LINE = System.lineSeparator();
+        // The header is built up here and printed with a single call
+        StringBuilder header = new StringBuilder(3 * (HEADER_WIDTH + NEW_LINE.length()));
 
-        // Print the top row of asterisks
+        // Add the top row of asterisks
         for (int i = 0; i < HEADER_WIDTH; i++) {
-            System.out.print("*");
+            header.append('*');
         }
-        System.out.println(); // New line after the top row
+        header.append(NEW_LINE); // New line after the top row
 
         // Calculate padding for centering the message
         // Available space for message and internal padding is HEADER_WIDTH - (2 * ASTERISKS_PER_SIDE)
@@ -243,27 +308,29 @@ public class SafeInput {
         int leftPadding = totalPadding / 2;
         int rightPadding = totalPadding - leftPadding; // Accounts for odd totalPadding
 
-        // Print the middle row
-        System.out.print("***"); // Leading asterisks
+        // Add the middle row
+        header.append("***"); // Leading asterisks
 
-        // Print left padding spaces
+        // Add left padding spaces
         for (int i = 0; i < leftPadding; i++) {
-            System.out.print(" ");
+            header.append(' ');
         }
 
-        System.out.print(msg); // Print the message
+        header.append(msg); // Add the message
 
-        // Print right padding spaces
+        // Add right padding spaces
         for (int i = 0; i < rightPadding; i++) {
-            System.out.print(" ");
+            header.append(' ');
         }
 
-        System.out.println("***"); // Trailing asterisks
+        header.append("***").append(NEW_LINE); // Trailing asterisks
 
-        // Print the bottom row of asterisks
+        // Add the bottom row of asterisks
         for (int i = 0; i < HEADER_WIDTH; i++) {
-            System.out.print("*");
+            header.append('*');
         }
-        System.out.println(); // New line after the bottom row
+        header.append(NEW_LINE); // New line after the bottom row
+
+        System.out.print(header); // Print the whole header at once
     }
 }
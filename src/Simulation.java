@@ -0,0 +1,258 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Batch self-play: plays many games between two Player strategies without any console
+ * interaction and reports how they went. Games are split across a ForkJoinPool; every
+ * worker gets its own Game and its own random generator, and results are summed into
+ * striped LongAdder counters so workers never contend on a shared lock.
+ */
+public class Simulation {
+
+    private static final String USAGE = "Usage: java Simulation [--games N] [--x random|heuristic|perfect|mcts[:N]]"
+            + " [--o random|heuristic|perfect|mcts[:N]] [--threads N] [--seed N] [--rows N] [--cols N] [--win K]";
+    private static final int GAMES_PER_TASK = 4096; // Games a worker plays before it stops splitting the range
+    private static final int MCTS_PLAYOUTS = 2000;  // Playouts per move for "mcts"; workers already use every core
+
+    private final Player xPlayer; // Strategy for X
+    private final Player oPlayer; // Strategy for O
+    private final int rows;       // Board rows
+    private final int cols;       // Board columns
+    private final int winLength;  // Marks in a row needed to win
+
+    // Results, striped so that parallel workers do not contend
+    private final LongAdder xWins = new LongAdder();
+    private final LongAdder oWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+
+    /**
+     * Creates a simulation between two strategies on a board of the given size.
+     *
+     * @param xPlayer   The strategy playing X.
+     * @param oPlayer   The strategy playing O.
+     * @param rows      Board rows.
+     * @param cols      Board columns.
+     * @param winLength Marks in a row needed to win.
+     */
+    public Simulation(Player xPlayer, Player oPlayer, int rows, int cols, int winLength) {
+        this.xPlayer = xPlayer;
+        this.oPlayer = oPlayer;
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+    }
+
+    /**
+     * Plays a number of games and adds the results to this simulation's totals.
+     *
+     * @param games   How many games to play.
+     * @param threads How many worker threads to use.
+     * @param seed    Seed for the random generators, so runs can be repeated.
+     */
+    public void run(long games, int threads, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new Batch(0, games, new SplittableRandom(seed)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one game to the end, reusing the given Game.
+     *
+     * @param game   The game to reset and play.
+     * @param random The worker's random generator.
+     * @return The final status.
+     */
+    public Game.Status playOne(Game game, SplittableRandom random) {
+        game.reset();
+        while (game.status() == Game.Status.IN_PROGRESS) {
+            Player player = game.currentPlayer() == Board.X ? xPlayer : oPlayer;
+            long start = GameMetrics.startTimer();
+            int cell = player.chooseMove(game, random);
+            GameMetrics.recordMoveSelection(start);
+            game.play(cell / cols, cell % cols);
+        }
+        return game.status();
+    }
+
+    /**
+     * Returns the number of games X has won so far.
+     *
+     * @return The running total.
+     */
+    public long xWins() {
+        return xWins.sum();
+    }
+
+    /**
+     * Returns the number of games O has won so far.
+     *
+     * @return The running total.
+     */
+    public long oWins() {
+        return oWins.sum();
+    }
+
+    /**
+     * Returns the number of drawn games so far.
+     *
+     * @return The running total.
+     */
+    public long draws() {
+        return draws.sum();
+    }
+
+    /**
+     * Returns the number of moves played across all games so far.
+     *
+     * @return The running total.
+     */
+    public long moves() {
+        return moves.sum();
+    }
+
+    /**
+     * Plays a range of games, splitting it in half until it is small enough for one worker.
+     */
+    private final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final SplittableRandom random;
+
+        Batch(long from, long to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GAMES_PER_TASK) {
+                long mid = (from + to) >>> 1;
+                // Each half gets an independent generator split off this one
+                invokeAll(new Batch(from, mid, random.split()), new Batch(mid, to, random.split()));
+                return;
+            }
+            Game game = new Game(rows, cols, winLength);
+            long x = 0;
+            long o = 0;
+            long d = 0;
+            long m = 0;
+            for (long i = from; i < to; i++) {
+                Game.Status status = playOne(game, random);
+                if (status == Game.Status.X_WINS) {
+                    x++;
+                } else if (status == Game.Status.O_WINS) {
+                    o++;
+                } else {
+                    d++;
+                }
+                m += game.turnCount();
+            }
+            // Publish once per batch rather than once per game
+            xWins.add(x);
+            oWins.add(o);
+            draws.add(d);
+            moves.add(m);
+        }
+    }
+
+    /**
+     * Looks up a strategy by name.
+     *
+     * @param name "random", "heuristic", "perfect", "mcts", or "mcts:N" for N playouts per move.
+     * @return The matching Player.
+     * @throws IllegalArgumentException if the name is not recognised.
+     */
+    public static Player playerNamed(String name) {
+        if (name.toLowerCase().startsWith("mcts:")) {
+            try {
+                return new MctsPlayer(Integer.parseInt(name.substring("mcts:".length())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unknown player '" + name + "'. " + USAGE, e);
+            }
+        }
+        switch (name.toLowerCase()) {
+            case "random":
+                return new RandomPlayer();
+            case "heuristic":
+                return new HeuristicPlayer();
+            case "perfect":
+                return new PerfectPlayer();
+            case "mcts":
+                return new MctsPlayer(MCTS_PLAYOUTS);
+            default:
+                throw new IllegalArgumentException("Unknown player '" + name + "'. " + USAGE);
+        }
+    }
+
+    /**
+     * Runs a batch of games from the command line and prints the results and throughput.
+     *
+     * @param args Optional settings, see USAGE.
+     */
+    public static void main(String[] args) {
+        long games = 1_000_000;
+        String x = "random";
+        String o = "random";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+        int rows = Board.ROWS;
+        int cols = Board.COLS;
+        int winLength = Board.WIN_LENGTH;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games":
+                        games = Long.parseLong(args[++i]);
+                        break;
+                    case "--x":
+                        x = args[++i];
+                        break;
+                    case "--o":
+                        o = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--rows":
+                        rows = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cols":
+                        cols = Integer.parseInt(args[++i]);
+                        break;
+                    case "--win":
+                        winLength = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        Simulation simulation = new Simulation(playerNamed(x), playerNamed(o), rows, cols, winLength);
+        long start = System.nanoTime();
+        simulation.run(games, threads, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(x + " (X) vs " + o + " (O), " + games + " games on " + threads + " threads");
+        System.out.printf("X wins: %d  O wins: %d  Draws: %d  Moves/game: %.2f%n",
+                simulation.xWins(), simulation.oWins(), simulation.draws(), (double) simulation.moves() / games);
+        System.out.printf("%.3f s, %.0f games/s%n", seconds, games / seconds);
+        if (GameMetrics.ENABLED) {
+            System.out.print(GameMetrics.get().report());
+        }
+    }
+}
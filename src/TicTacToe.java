@@ -1,91 +1,97 @@
-import java.util.Scanner; // Needed for SafeInput methods
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
 
 /**
  * Main class for the Tic Tac Toe game from Lab10 of 1090C.
- * This class contains the game logic, board representation,
- * and helper methods for game operations.
+ * This class runs the console version of the game. The rules and game state
+ * live in Game, so this class only handles prompts and display.
  */
 public class TicTacToe {
 
-    // Class-level variables for the board and its dimensions
-    private static final int ROWS = 3; // Number of rows on the Tic Tac Toe board
-    private static final int COLS = 3; // Number of columns on the Tic Tac Toe board
-    // The game board, initialized with ROWS and COLS. Each cell will store " " (empty), "X", or "O".
-    private static final String[][] board = new String[ROWS][COLS];
-
-    // Main method where the game execution will start
-    public static void main(String[] args) {
-        Scanner in = new Scanner(System.in); // Create a single Scanner object for all inputs
-
-        // --- Pseudo Code Outline for Tic Tac Toe Game ---
-        // --- End of Pseudo Code Outline ---
+    private static final String USAGE = "Usage: java TicTacToe [--rows N] [--cols N] [--win K] [--computer X|O] [--quiet]"
+            + " [--script FILE|-] [--record FILE]";
 
+    /**
+     * Main method where the game execution will start.
+     * With no arguments two people play classic 3x3 Tic Tac Toe. "--rows", "--cols" and
+     * "--win" choose a larger variant, e.g. "--rows 15 --cols 15 --win 5" for gomoku.
+     * "--computer X" or "--computer O" lets the perfect-play engine take that side on a 3x3 board.
+     * "--quiet" skips the welcome header, board and turn announcements, for non-interactive runs.
+     * "--script FILE" reads moves and answers from a file ("-" for standard input) without prompts.
+     * Input is always read with FastInput rather than a Scanner, because creating a Scanner loads
+     * the regex engine and locale data, which is a large part of the time to the first prompt.
+     * "--record FILE" appends every finished 3x3 game to a binary archive (see GameRecordWriter).
+     *
+     * @param args Optional settings, see USAGE.
+     * @throws IOException if the script file cannot be read or the record file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        // A single FastInput for all inputs: the console with prompts, or a script without them
+        FastInput in;
+        if (options.script == null) {
+            in = new FastInput(System.in, true);
+        } else {
+            in = new FastInput(options.script.equals("-") ? System.in : new FileInputStream(options.script));
+            // Nobody is watching a scripted run, so buffer the output instead of flushing every line
+            System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false));
+        }
+        // The game engine holds the board, turn and result
+        Game game = new Game(options.rows, options.cols, options.winLength);
+        int rows = game.board().rows(); // Number of rows on the board
+        int cols = game.board().cols(); // Number of columns on the board
+        BoardRenderer renderer = new BoardRenderer(rows, cols); // Draws the board with one write
+        // The person (or script) at the keyboard picks moves for the human side
+        Player human = new ConsolePlayer(in);
+        // Archive of finished games, if asked for
+        GameRecordWriter recorder = options.record == null ? null : new GameRecordWriter(Paths.get(options.record));
+        if (options.script != null || recorder != null) {
+            // Flush the output and keep the games already finished even if the input runs out mid-game
+            Runtime.getRuntime().addShutdownHook(new ShutdownTask(recorder));
+        }
 
         // --- Game Implementation ---
         boolean playAgain;
-        String currentPlayer;
-        boolean gameOver;
-        int turnCount;
-        int rowMove;
-        int colMove;
-        int actualRow;
-        int actualCol;
+        int cell;
 
         do { // Outer loop for playing multiple games
-            clearBoard(); // Clear the board for a new game
-            currentPlayer = "X"; // X always starts
-            gameOver = false;
-            turnCount = 0; // Reset turn counter for a new game
+            game.reset(); // Clear the board for a new game, X always starts
 
-            SafeInput.prettyHeader("Welcome to Tic Tac Toe!"); // Display a nice header
-            display(); // Display the initial empty board
+            if (!options.quiet) {
+                SafeInput.prettyHeader("Welcome to Tic Tac Toe!"); // Display a nice header
+            }
+            display(renderer, game, options); // Display the initial empty board
 
             do { // Inner loop for a single game (turns)
                 // Prompt current player for their move
-                System.out.println("It's " + currentPlayer + "'s turn.");
-                do {
-                    // Get row input (1-3)
-                    rowMove = SafeInput.getRangedInt(in, "Enter row (1-" + ROWS + ")", 1, ROWS);
-                    // Get col input (1-3)
-                    colMove = SafeInput.getRangedInt(in, "Enter column (1-" + COLS + ")", 1, COLS);
-
-                    // Convert 1-3 coordinates to 0-2 array indices
-                    actualRow = rowMove - 1;
-                    actualCol = colMove - 1;
-
-                    // Validate move
-                    if (isValidMove(actualRow, actualCol)) {
-                        System.out.println("Invalid move! That spot is already taken or out of bounds. Please choose an empty spot.");
-                    }
-                } while (isValidMove(actualRow, actualCol)); // Loop until a valid move is entered
-
-                // Record the valid move on the board
-                board[actualRow][actualCol] = currentPlayer;
-                turnCount++; // Increment turn counter
-
-                display(); // Display the board after the move
-
-                // Check for win or tie conditions
-                if (turnCount >= 5) { // Minimum 5 moves needed for a win
-                    if (isWin(currentPlayer)) {
-                        SafeInput.prettyHeader(currentPlayer + " WINS! Congratulations!");
-                        gameOver = true;
-                    }
+                if (!options.quiet) {
+                    System.out.println("It's " + Board.symbol(game.currentPlayer()) + "'s turn.");
                 }
-
-                if (!gameOver && turnCount == 9) { // If the board is full and no win, it's a tie
-                    if (isTie()) { // isTie checks if the board is full and no win
-                        SafeInput.prettyHeader("It's a TIE! Good game!");
-                        gameOver = true;
-                    }
+                if (game.currentPlayer() == options.computerPlayer) {
+                    // The engine looks up a best move for the current position
+                    long start = GameMetrics.startTimer();
+                    cell = OutcomeTable.bestMove((Board) game.board());
+                    GameMetrics.recordMoveSelection(start);
+                    System.out.println("Computer plays row " + (cell / cols + 1) + ", column " + (cell % cols + 1) + ".");
+                } else {
+                    cell = human.chooseMove(game, null); // Prompts until a valid move is entered
                 }
 
-                // If the game is not over, toggle player
-                if (!gameOver) {
-                    currentPlayer = (currentPlayer.equals("X")) ? "O" : "X";
-                }
+                // Record the valid move, the game checks for a win or tie and toggles the player
+                game.play(cell / cols, cell % cols);
+
+                display(renderer, game, options); // Display the board after the move
+            } while (game.status() == Game.Status.IN_PROGRESS); // End of inner game loop
 
-            } while (!gameOver); // End of inner game loop
+            announceResult(game);
+            if (recorder != null) {
+                recorder.write(game);
+            }
 
             // Prompt players to play again
             playAgain = SafeInput.getYNConfirm(in, "Do you want to play again?");
@@ -93,144 +99,149 @@ public class TicTacToe {
         } while (playAgain); // End of outer play again loop
 
         System.out.println("Thanks for playing Tic Tac Toe!");
-        in.close(); // Close the scanner when the program is done
-    }
-
-    // Helper methods for Tic Tac Toe game logic (private static)
-
-    /**
-     * Clears the Tic Tac Toe board by setting all elements to a single space character "".
-     * This prepares the board for a new game.
-     */
-    private static void clearBoard() {
-        // Iterate through each row
-        for (int r = 0; r < ROWS; r++) {
-            // Iterate through each column in the current row
-            for (int c = 0; c < COLS; c++) {
-                board[r][c] = " "; // Set the cell to a space character
-            }
+        if (recorder != null) {
+            closeRecorder(recorder); // Write out the last buffered games
         }
+        in.close(); // Close the input when the program is done
     }
 
-    /**
-     * Displays the current state of the Tic Tac Toe board to the console.
-     * It formats the board with lines and pipes for readability.
-     */
-    private static void display() {
-        // Outer loop for rows
-        for (int r = 0; r < ROWS; r++) {
-            // Inner loop for columns to print cell content
-            for (int c = 0; c < COLS; c++) {
-                // Print the content of the current cell, ensuring a consistent width for single characters
-                System.out.print(" " + board[r][c] + " ");
-                if (c < COLS - 1) { // If it's not the last column, print a pipe separator
-                    System.out.print("|");
-                }
-            }
-            System.out.println(); // Move to the next line after printing a row
-            if (r < ROWS - 1) { // If it's not the last row, print a horizontal line separator
-                System.out.println("---+---+---"); // Adjusted for 3-char wide cells
-            }
-        }
-        System.out.println(); // Add an extra newline for spacing after the board
-    }
+    // Helper methods for the console front end (private static)
 
     /**
-     * Checks if a proposed move (row, col) is valid.
-     * A move is valid if the specified cell on the board is currently empty (" ").
+     * Writes out and closes the game archive; closing it twice is harmless.
      *
-     * @param row The row index of the proposed move.
-     * @param col The column index of the proposed move.
-     * @return true if the cell is empty and thus a legal move, false otherwise.
+     * @param recorder The archive writer.
      */
-    private static boolean isValidMove(int row, int col) {
-        // Check if the cell at the given coordinates is a space (empty)
-        // Bounds checking is implicitly handled by getRangedInt for user input (1-3 converted to 0-2),
-        // but it's good practice to keep it for robustness if this method were called directly.
-        return row < 0 || row >= ROWS || col < 0 || col >= COLS || !board[row][col].equals(" ");
+    private static void closeRecorder(GameRecordWriter recorder) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Could not save game records: " + e.getMessage());
+        }
     }
 
     /**
-     * Checks if the specified player (X or O) has won the game.
-     * This method calls helper methods to check for row, column, and diagonal wins.
+     * Prints a header announcing how a finished game ended.
      *
-     * @param player The player symbol ("X" or "O") to check for a win.
-     * @return true if the player has won, false otherwise.
+     * @param game The finished game.
      */
-    private static boolean isWin(String player) {
-        // A player wins if they have a row win, a column win, or a diagonal win
-        return isRowWin(player) || isColWin(player) || isDiagonalWin(player);
+    private static void announceResult(Game game) {
+        if (game.status() == Game.Status.DRAW) {
+            SafeInput.prettyHeader("It's a TIE! Good game!");
+        } else {
+            SafeInput.prettyHeader(Board.symbol(game.currentPlayer()) + " WINS! Congratulations!");
+        }
     }
 
     /**
-     * Checks if the specified player has a win condition in any row.
+     * Displays the current state of the board to the console, unless running quietly.
+     * The renderer lays the board out with lines and pipes in a reusable buffer
+     * and writes it in a single call.
      *
-     * @param player The player symbol ("X" or "O") to check for a row win.
-     * @return true if the player has three in a row, false otherwise.
+     * @param renderer The renderer for this board size.
+     * @param game     The game whose board should be shown.
+     * @param options  The command line settings.
      */
-    private static boolean isRowWin(String player) {
-        // Iterate through each row
-        for (int r = 0; r < ROWS; r++) {
-            // Check if all cells in the current row match the player's symbol
-            if (board[r][0].equals(player) && board[r][1].equals(player) && board[r][2].equals(player)) {
-                return true; // Found a row win
-            }
+    private static void display(BoardRenderer renderer, Game game, Options options) {
+        if (!options.quiet) {
+            renderer.print(game.board(), System.out);
         }
-        return false; // No row win found
     }
 
     /**
-     * Checks if the specified player has a win condition in any column.
-     *
-     * @param player The player symbol ("X" or "O") to check for a column win.
-     * @return true if the player has three in a column, false otherwise.
+     * Settings read from the command line.
      */
-    private static boolean isColWin(String player) {
-        // Iterate through each column
-        for (int c = 0; c < COLS; c++) {
-            // Check if all cells in the current column match the player's symbol
-            if (board[0][c].equals(player) && board[1][c].equals(player) && board[2][c].equals(player)) {
-                return true; // Found a column win
+    private static final class Options {
+        int rows = Board.ROWS;          // Number of rows on the board
+        int cols = Board.COLS;          // Number of columns on the board
+        int winLength = Board.WIN_LENGTH; // Marks in a row needed to win
+        int computerPlayer = Board.EMPTY; // Side played by the engine, Board.EMPTY if both are human
+        boolean quiet = false;            // Skip the welcome header, board and turn announcements
+        String script = null;             // File of scripted input, "-" for stdin, null for interactive
+        String record = null;             // Game archive to append to, null for none
+
+        /**
+         * Reads the command line arguments.
+         *
+         * @param args The command line arguments.
+         * @return The parsed settings.
+         * @throws IllegalArgumentException if an argument is not recognised or out of range.
+         */
+        static Options parse(String[] args) {
+            Options options = new Options();
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    switch (args[i]) {
+                        case "--rows":
+                            options.rows = Integer.parseInt(args[++i]);
+                            break;
+                        case "--cols":
+                            options.cols = Integer.parseInt(args[++i]);
+                            break;
+                        case "--win":
+                            options.winLength = Integer.parseInt(args[++i]);
+                            break;
+                        case "--computer":
+                            String side = args[++i];
+                            if (side.equalsIgnoreCase("X")) {
+                                options.computerPlayer = Board.X;
+                            } else if (side.equalsIgnoreCase("O")) {
+                                options.computerPlayer = Board.O;
+                            } else {
+                                throw new IllegalArgumentException(USAGE);
+                            }
+                            break;
+                        case "--quiet":
+                            options.quiet = true;
+                            break;
+                        case "--script":
+                            options.script = args[++i];
+                            break;
+                        case "--record":
+                            options.record = args[++i];
+                            break;
+                        default:
+                            throw new IllegalArgumentException(USAGE);
+                    }
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException(USAGE, e);
             }
+            boolean classic = options.rows == Board.ROWS && options.cols == Board.COLS
+                    && options.winLength == Board.WIN_LENGTH;
+            if (options.computerPlayer != Board.EMPTY && !classic) {
+                throw new IllegalArgumentException("The computer player only plays the classic 3x3 game");
+            }
+            if (options.record != null && !classic) {
+                throw new IllegalArgumentException("Only classic 3x3 games can be recorded");
+            }
+            return options;
         }
-        return false; // No column win found
     }
 
     /**
-     * Checks if the specified player has a win condition in any diagonal.
-     * There are two possible diagonals: top-left to bottom-right, and top-right to a bottom-left.
-     *
-     * @param player The player symbol ("X" or "O") to check for a diagonal win.
-     * @return true if the player has three in a diagonal, false otherwise.
+     * Runs at exit to flush buffered output and save the game archive.
+     * A plain Thread subclass rather than a lambda, so launching the game does not have
+     * to bootstrap the lambda machinery (see the cds profile in pom.xml).
      */
-    private static boolean isDiagonalWin(String player) {
-        // Check top-left to bottom-right diagonal
-        if (board[0][0].equals(player) && board[1][1].equals(player) && board[2][2].equals(player)) {
-            return true;
+    private static final class ShutdownTask extends Thread {
+        private final GameRecordWriter recorder; // Archive to close, or null
+
+        /**
+         * Creates the task.
+         *
+         * @param recorder The game archive to close, or null if games are not recorded.
+         */
+        ShutdownTask(GameRecordWriter recorder) {
+            this.recorder = recorder;
         }
-        // Check top-right to bottom-left diagonal
-        return board[0][2].equals(player) && board[1][1].equals(player) && board[2][0].equals(player);// No diagonal win found
-    }
 
-    /**
-     * Checks for a tie condition in the Tic Tac Toe game.
-     * A tie occurs if all cells on the board are filled and no player has won.
-     * (This implementation checks if the board is full. The alternative of checking
-     * if all win vectors are blocked is more complex and not implemented here,
-     * but could be added if needed.)
-     *
-     * @return true if the game is a tie, false otherwise.
-     */
-    private static boolean isTie() {
-        // Iterate through all cells to see if any are still empty
-        for (int r = 0; r < ROWS; r++) {
-            for (int c = 0; c < COLS; c++) {
-                if (board[r][c].equals(" ")) {
-                    return false; // Found an empty space, so it's not a tie yet
-                }
+        @Override
+        public void run() {
+            if (recorder != null) {
+                closeRecorder(recorder);
             }
+            System.out.flush();
         }
-        return true; // No empty spaces found, so the board is full.
-        // If isWin() was also false, then it's a tie.
     }
 }
@@ -0,0 +1,402 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Plays Player strategies against each other and ranks them by Elo rating.
+ * A round-robin schedule pairs every entrant with every other; a Swiss schedule plays
+ * a number of rounds, each pairing entrants with neighbours of similar rating. Within a
+ * pairing the two sides keep their marks but take turns moving first.
+ * <p>
+ * Pairings are spread over a ForkJoinPool like Simulation's batches. Every game result
+ * moves rating points between the two sides with two separate compare-and-set additions
+ * on an AtomicLongArray, and win, draw and loss counts are atomic too, so workers never
+ * wait on a shared lock. The pair of updates is not atomic: the expected score comes from
+ * ratings read just before, which another game may change before or between the two
+ * additions, so parallel ratings are an approximation of the sequential Elo result. They
+ * vary slightly from run to run; the win, draw and loss counts do not.
+ */
+public class Tournament {
+
+    private static final String USAGE = "Usage: java Tournament [--players NAME[*COUNT],...] [--format round-robin|swiss]"
+            + " [--rounds N] [--games N] [--k N] [--threads N] [--seed N] [--rows N] [--cols N] [--win K]";
+    private static final double INITIAL_RATING = 1500;
+    private static final int PAIRINGS_PER_TASK = 16; // Pairings a worker plays before it stops splitting the list
+
+    private final List<String> names = new ArrayList<>(); // Entrant labels, unique
+    private final List<Player> players = new ArrayList<>();
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final int gamesPerPairing;
+    private final double kFactor; // Largest rating change from one game
+    private AtomicLongArray ratings; // Double bits, so ratings can be updated with compare-and-set
+    private AtomicLongArray wins;
+    private AtomicLongArray draws;
+    private AtomicLongArray losses;
+
+    /**
+     * Creates an empty tournament.
+     *
+     * @param rows            Board rows.
+     * @param cols            Board columns.
+     * @param winLength       Marks in a row needed to win.
+     * @param gamesPerPairing Games each pairing plays; an even number gives both sides the first move equally often.
+     * @param kFactor         Elo K-factor, the largest rating change from one game.
+     */
+    public Tournament(int rows, int cols, int winLength, int gamesPerPairing, double kFactor) {
+        if (gamesPerPairing < 1) {
+            throw new IllegalArgumentException("Each pairing must play at least one game");
+        }
+        new Game(rows, cols, winLength); // Validates the board size up front
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.gamesPerPairing = gamesPerPairing;
+        this.kFactor = kFactor;
+    }
+
+    /**
+     * Registers an entrant. Must be called before the tournament is run.
+     *
+     * @param name   A label for the leaderboard; a number is added if it is already taken.
+     * @param player The strategy, which must be safe to share between threads.
+     */
+    public void add(String name, Player player) {
+        if (ratings != null) {
+            throw new IllegalStateException("The tournament has already started");
+        }
+        String label = name;
+        for (int n = 2; names.contains(label); n++) {
+            label = name + "#" + n;
+        }
+        names.add(label);
+        players.add(player);
+    }
+
+    /**
+     * Plays every entrant against every other.
+     *
+     * @param threads Worker threads.
+     * @param seed    Seed for the random generators.
+     */
+    public void runRoundRobin(int threads, long seed) {
+        start();
+        int n = players.size();
+        List<int[]> pairings = new ArrayList<>(n * (n - 1) / 2);
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                pairings.add(new int[]{a, b});
+            }
+        }
+        play(pairings, threads, new SplittableRandom(seed));
+    }
+
+    /**
+     * Plays a Swiss tournament: each round sorts the entrants by rating and pairs each with
+     * the closest-rated entrant below it that it has not met yet, if there is one. With an
+     * odd number of entrants the lowest unpaired one sits the round out.
+     *
+     * @param rounds  Number of rounds.
+     * @param threads Worker threads.
+     * @param seed    Seed for the random generators.
+     */
+    public void runSwiss(int rounds, int threads, long seed) {
+        start();
+        int n = players.size();
+        boolean[][] met = new boolean[n][n];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int round = 0; round < rounds; round++) {
+            Integer[] order = byRating();
+            boolean[] paired = new boolean[n];
+            List<int[]> pairings = new ArrayList<>(n / 2);
+            for (int i = 0; i < n; i++) {
+                int a = order[i];
+                if (paired[a]) {
+                    continue;
+                }
+                int partner = -1;
+                for (int j = i + 1; j < n; j++) {
+                    int b = order[j];
+                    if (!paired[b] && (partner < 0 || !met[a][b])) {
+                        partner = b;
+                        if (!met[a][b]) {
+                            break; // Closest-rated opponent not met yet
+                        }
+                    }
+                }
+                if (partner >= 0) {
+                    paired[a] = true;
+                    paired[partner] = true;
+                    met[a][partner] = true;
+                    met[partner][a] = true;
+                    pairings.add(new int[]{a, partner});
+                }
+            }
+            play(pairings, threads, random.split());
+        }
+    }
+
+    /**
+     * Returns the standings as a table, best rating first.
+     *
+     * @return A multi-line leaderboard.
+     */
+    public String leaderboard() {
+        StringBuilder board = new StringBuilder();
+        board.append(String.format("%4s  %-20s %7s %8s %8s %8s %8s %7s%n",
+                "Rank", "Player", "Elo", "Games", "Wins", "Draws", "Losses", "Score"));
+        Integer[] order = byRating();
+        for (int rank = 0; rank < order.length; rank++) {
+            int i = order[rank];
+            long w = wins.get(i);
+            long d = draws.get(i);
+            long l = losses.get(i);
+            long games = w + d + l;
+            board.append(String.format("%4d  %-20s %7.0f %8d %8d %8d %8d %6.1f%%%n", rank + 1, names.get(i),
+                    rating(i), games, w, d, l, games == 0 ? 0 : 100.0 * (w + 0.5 * d) / games));
+        }
+        return board.toString();
+    }
+
+    /**
+     * Returns an entrant's current rating.
+     *
+     * @param entrant The entrant's position in registration order.
+     * @return The Elo rating.
+     */
+    public double rating(int entrant) {
+        return Double.longBitsToDouble(ratings.get(entrant));
+    }
+
+    /**
+     * Sets up the scoreboard the first time a schedule is run.
+     */
+    private void start() {
+        if (players.size() < 2) {
+            throw new IllegalStateException("A tournament needs at least two players");
+        }
+        if (ratings == null) {
+            int n = players.size();
+            ratings = new AtomicLongArray(n);
+            for (int i = 0; i < n; i++) {
+                ratings.set(i, Double.doubleToLongBits(INITIAL_RATING));
+            }
+            wins = new AtomicLongArray(n);
+            draws = new AtomicLongArray(n);
+            losses = new AtomicLongArray(n);
+        }
+    }
+
+    private void play(List<int[]> pairings, int threads, SplittableRandom random) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new Batch(pairings, 0, pairings.size(), random));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one pairing: a has X and b has O, and the first move alternates between them.
+     */
+    private void playPairing(Game game, int a, int b, SplittableRandom random) {
+        Player x = players.get(a);
+        Player o = players.get(b);
+        for (int i = 0; i < gamesPerPairing; i++) {
+            game.reset(i % 2 == 0 ? Board.X : Board.O);
+            while (game.status() == Game.Status.IN_PROGRESS) {
+                Player player = game.currentPlayer() == Board.X ? x : o;
+                long start = GameMetrics.startTimer();
+                int cell = player.chooseMove(game, random);
+                GameMetrics.recordMoveSelection(start);
+                game.play(cell / cols, cell % cols);
+            }
+            Game.Status status = game.status();
+            if (status == Game.Status.X_WINS) {
+                record(a, b, 1);
+            } else if (status == Game.Status.O_WINS) {
+                record(a, b, 0);
+            } else {
+                record(a, b, 0.5);
+            }
+        }
+    }
+
+    /**
+     * Counts a result and moves both ratings by the standard Elo update.
+     *
+     * @param a     One entrant.
+     * @param b     The other entrant.
+     * @param score a's score: 1 for a win, 0.5 for a draw, 0 for a loss.
+     */
+    private void record(int a, int b, double score) {
+        if (score == 1) {
+            wins.incrementAndGet(a);
+            losses.incrementAndGet(b);
+        } else if (score == 0) {
+            losses.incrementAndGet(a);
+            wins.incrementAndGet(b);
+        } else {
+            draws.incrementAndGet(a);
+            draws.incrementAndGet(b);
+        }
+        double expected = 1 / (1 + Math.pow(10, (rating(b) - rating(a)) / 400));
+        double change = kFactor * (score - expected);
+        addRating(a, change);
+        addRating(b, -change); // Equal and opposite, so the total is kept once both additions land
+    }
+
+    private void addRating(int entrant, double change) {
+        long current;
+        long updated;
+        do {
+            current = ratings.get(entrant);
+            updated = Double.doubleToLongBits(Double.longBitsToDouble(current) + change);
+        } while (!ratings.compareAndSet(entrant, current, updated));
+    }
+
+    private Integer[] byRating() {
+        Integer[] order = new Integer[players.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> rating(i)).reversed());
+        return order;
+    }
+
+    /**
+     * Plays a range of pairings, splitting it in half until it is small enough for one worker.
+     */
+    private final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<int[]> pairings;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        Batch(List<int[]> pairings, int from, int to, SplittableRandom random) {
+            this.pairings = pairings;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PAIRINGS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                // Each half gets an independent generator split off this one
+                invokeAll(new Batch(pairings, from, mid, random.split()), new Batch(pairings, mid, to, random.split()));
+                return;
+            }
+            Game game = new Game(rows, cols, winLength);
+            for (int i = from; i < to; i++) {
+                int[] pairing = pairings.get(i);
+                playPairing(game, pairing[0], pairing[1], random);
+            }
+        }
+    }
+
+    /**
+     * Runs a tournament from the command line and prints the leaderboard.
+     * Players are named as for Simulation ("random", "heuristic", "perfect", "mcts" or
+     * "mcts:PLAYOUTS"); "NAME*COUNT" enters COUNT copies. The perfect player only knows the
+     * classic 3x3 board, so it is left out of the default entrants on any other board.
+     *
+     * @param args Optional settings, see USAGE.
+     */
+    public static void main(String[] args) {
+        String entrants = null;
+        String format = "round-robin";
+        int rounds = 7;
+        int games = 100;
+        double kFactor = 16;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+        int rows = Board.ROWS;
+        int cols = Board.COLS;
+        int winLength = Board.WIN_LENGTH;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--players":
+                        entrants = args[++i];
+                        break;
+                    case "--format":
+                        format = args[++i];
+                        break;
+                    case "--rounds":
+                        rounds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--games":
+                        games = Integer.parseInt(args[++i]);
+                        break;
+                    case "--k":
+                        kFactor = Double.parseDouble(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--rows":
+                        rows = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cols":
+                        cols = Integer.parseInt(args[++i]);
+                        break;
+                    case "--win":
+                        winLength = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        boolean classic = rows == Board.ROWS && cols == Board.COLS && winLength == Board.WIN_LENGTH;
+        if (entrants == null) {
+            entrants = classic ? "random,heuristic,perfect,mcts:100,mcts:1000" : "random,heuristic,mcts:100,mcts:1000";
+        }
+
+        Tournament tournament = new Tournament(rows, cols, winLength, games, kFactor);
+        try {
+            for (String entry : entrants.split(",")) {
+                String[] parts = entry.trim().split("\\*");
+                if (parts[0].equals("perfect") && !classic) {
+                    throw new IllegalArgumentException("perfect only plays the classic 3x3 board\n" + USAGE);
+                }
+                int copies = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+                for (int c = 0; c < copies; c++) {
+                    tournament.add(parts[0], Simulation.playerNamed(parts[0]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(USAGE, e);
+        }
+
+        long start = System.nanoTime();
+        if (format.equals("round-robin")) {
+            tournament.runRoundRobin(threads, seed);
+        } else if (format.equals("swiss")) {
+            tournament.runSwiss(rounds, threads, seed);
+        } else {
+            throw new IllegalArgumentException(USAGE);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(tournament.leaderboard());
+        System.out.printf("%s, %d players, %d games per pairing, %.3f s on %d threads%n",
+                format, tournament.players.size(), games, seconds, threads);
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A transposition table kept in a memory-mapped file, so solved positions survive
+ * from one run to the next. It maps a 64-bit position hash to a value, a best move,
+ * a search depth and a bound flag, like Minimax's in-memory table.
+ * <p>
+ * The file is a fixed number of 64-byte buckets after a 64-byte header. Each bucket holds
+ * four 16-byte entries, and a hash only ever looks in its own bucket, so lookups touch one
+ * cache line and the file never grows. When a bucket is full, a new result replaces the
+ * entry with the shallowest search, because deep results cost the most to rebuild.
+ * <p>
+ * Any number of threads may read and write at once without locks. Each entry is stored as
+ * (hash XOR data, data) using atomic 8-byte accesses. A reader only accepts an entry if the
+ * two words agree on the hash, so a torn entry from a racing writer looks like a miss,
+ * never like wrong data. The header records the board size, so a store is never used for
+ * the wrong game.
+ */
+public class TranspositionStore implements Closeable {
+
+    // Bound flags, as in Minimax
+    public static final int FLAG_EXACT = 1; // Value is the true score
+    public static final int FLAG_LOWER = 2; // True score is at least value
+    public static final int FLAG_UPPER = 3; // True score is at most value
+
+    private static final long MAGIC = 0x5454_5453_544f_5245L; // "TTTSTORE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final long MAX_BUCKETS = (Integer.MAX_VALUE - HEADER_BYTES) / BUCKET_BYTES; // One mapping
+
+    // Atomic, byte-order-fixed access to the 8-byte words of the mapping
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final long bucketMask; // Buckets - 1; the bucket count is a power of two
+
+    /**
+     * Opens a store, creating it if the file does not exist. An existing file keeps its
+     * entries and its own size.
+     *
+     * @param path      The store file.
+     * @param rows      Rows of the game the positions belong to.
+     * @param cols      Columns of the game.
+     * @param winLength Win length of the game.
+     * @param entries   Capacity for a new file, rounded down to a power of two buckets.
+     * @throws IOException              if the file cannot be opened or belongs to another game.
+     * @throws IllegalArgumentException if entries is out of range.
+     */
+    public TranspositionStore(Path path, int rows, int cols, int winLength, long entries) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long buckets;
+            long size = channel.size();
+            boolean fresh = size == 0;
+            if (fresh) {
+                if (entries < BUCKET_ENTRIES || entries / BUCKET_ENTRIES > MAX_BUCKETS) {
+                    throw new IllegalArgumentException("A store holds from " + BUCKET_ENTRIES + " to "
+                            + MAX_BUCKETS * BUCKET_ENTRIES + " entries");
+                }
+                buckets = Long.highestOneBit(entries / BUCKET_ENTRIES);
+            } else {
+                // Check the size before mapping, since mapping past the end would grow the file
+                buckets = (size - HEADER_BYTES) / BUCKET_BYTES;
+                if (size < HEADER_BYTES + BUCKET_BYTES || (size - HEADER_BYTES) % BUCKET_BYTES != 0
+                        || Long.bitCount(buckets) != 1 || buckets > MAX_BUCKETS) {
+                    throw new IOException("Not a position store: " + path);
+                }
+            }
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + buckets * BUCKET_BYTES);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (fresh) {
+                map.putLong(0, MAGIC).putInt(8, VERSION).putInt(12, rows).putInt(16, cols).putInt(20, winLength)
+                        .putLong(24, buckets);
+            } else if (map.getLong(0) != MAGIC || map.getInt(8) != VERSION || map.getLong(24) != buckets) {
+                throw new IOException("Not a position store: " + path);
+            } else if (map.getInt(12) != rows || map.getInt(16) != cols || map.getInt(20) != winLength) {
+                throw new IOException(path + " holds positions for " + map.getInt(12) + "x" + map.getInt(16)
+                        + " with " + map.getInt(20) + " in a row");
+            }
+            bucketMask = buckets - 1;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param hash The position's 64-bit hash.
+     * @return The packed entry (see value(), move(), depth() and flag()), or 0 if it is not stored.
+     */
+    public long probe(long hash) {
+        int bucket = bucketOffset(hash);
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int at = bucket + i * ENTRY_BYTES;
+            long data = (long) LONGS.getOpaque(map, at + 8);
+            long check = (long) LONGS.getOpaque(map, at);
+            if (data != 0 && (check ^ data) == hash) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result, replacing an older result for the same position unless that
+     * one came from a deeper search, or else the shallowest entry in the bucket.
+     *
+     * @param hash  The position's 64-bit hash.
+     * @param value The score, from -32768 to 32767.
+     * @param move  The best move as a cell index, or -1 for none.
+     * @param depth How deep the search went, e.g. the number of empty cells; 0 to 65535.
+     * @param flag  FLAG_EXACT, FLAG_LOWER or FLAG_UPPER.
+     */
+    public void store(long hash, int value, int move, int depth, int flag) {
+        long data = (value & 0xFFFFL) | ((move + 1L) & 0xFFFF) << 16 | (depth & 0xFFFFL) << 32 | (long) flag << 48;
+        int bucket = bucketOffset(hash);
+        int target = -1;
+        int shallowest = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int at = bucket + i * ENTRY_BYTES;
+            long old = (long) LONGS.getOpaque(map, at + 8);
+            if (old == 0) {
+                target = at; // Free slot; the position cannot be further along the bucket
+                break;
+            }
+            if (((long) LONGS.getOpaque(map, at) ^ old) == hash) {
+                if (depth(old) > depth && flag(old) == FLAG_EXACT) {
+                    return; // Keep the deeper exact result
+                }
+                target = at;
+                break;
+            }
+            if (depth(old) < shallowest) {
+                shallowest = depth(old);
+                target = at;
+            }
+        }
+        // A reader racing with these two writes sees a mismatched pair and treats it as a miss
+        LONGS.setOpaque(map, target, hash ^ data);
+        LONGS.setOpaque(map, target + 8, data);
+    }
+
+    /**
+     * Counts the stored entries by scanning the whole file.
+     *
+     * @return The number of entries in use.
+     */
+    public long count() {
+        long used = 0;
+        long end = HEADER_BYTES + (bucketMask + 1) * BUCKET_BYTES;
+        for (int at = HEADER_BYTES; at < end; at += ENTRY_BYTES) {
+            if ((long) LONGS.getOpaque(map, at + 8) != 0) {
+                used++;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Returns how many entries the store can hold.
+     *
+     * @return The capacity.
+     */
+    public long capacity() {
+        return (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    /**
+     * Writes the mapped entries out to the file and closes it.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    /**
+     * Returns the score in a packed entry.
+     *
+     * @param data A packed entry from probe().
+     * @return The score.
+     */
+    public static int value(long data) {
+        return (short) data;
+    }
+
+    /**
+     * Returns the best move in a packed entry.
+     *
+     * @param data A packed entry from probe().
+     * @return The cell index, or -1 if none was stored.
+     */
+    public static int move(long data) {
+        return (int) ((data >>> 16) & 0xFFFF) - 1;
+    }
+
+    /**
+     * Returns the search depth in a packed entry.
+     *
+     * @param data A packed entry from probe().
+     * @return The depth.
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFFFF);
+    }
+
+    /**
+     * Returns the bound flag in a packed entry.
+     *
+     * @param data A packed entry from probe().
+     * @return FLAG_EXACT, FLAG_LOWER or FLAG_UPPER.
+     */
+    public static int flag(long data) {
+        return (int) ((data >>> 48) & 0b11);
+    }
+
+    private int bucketOffset(long hash) {
+        // Mix the high bits in, so hashes that differ only there still spread over buckets
+        return HEADER_BYTES + (int) ((hash ^ (hash >>> 32)) & bucketMask) * BUCKET_BYTES;
+    }
+}
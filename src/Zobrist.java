@@ -0,0 +1,49 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zobrist hashing keys for boards of any size. A position's hash is the XOR of one random
+ * 64-bit key per occupied cell and player, plus a side key when O is to move, so a move
+ * or an undo updates it with a single XOR. Keys come from a fixed seed, so hashes are the
+ * same in every run and can be stored on disk, as TranspositionStore does.
+ * Keys are made once per board size and shared, so a new game costs no key memory.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x7177_7e57_0ba2_d5edL; // Never change: stored hashes depend on it
+    private static final long[] CLASSIC = generate(Board.CELLS); // The common 3x3 case, without a map lookup
+    private static final ConcurrentHashMap<Integer, long[]> BY_CELLS = new ConcurrentHashMap<>(); // Other sizes
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the keys for a board with the given number of cells.
+     * Entry cell * 2 + player - 1 is the key for that player's mark on that cell, and the
+     * last entry is the side key. The array must not be modified.
+     *
+     * @param cells Cells on the board (rows * cols).
+     * @return cells * 2 + 1 keys.
+     */
+    public static long[] keys(int cells) {
+        if (cells == Board.CELLS) {
+            return CLASSIC;
+        }
+        return BY_CELLS.computeIfAbsent(cells, Zobrist::generate);
+    }
+
+    /**
+     * Makes the keys for a board size from the fixed seed.
+     *
+     * @param cells Cells on the board.
+     * @return cells * 2 + 1 keys.
+     */
+    private static long[] generate(int cells) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long[] keys = new long[cells * 2 + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks Board's lookup tables against a plain scan of the eight lines, for every key.
+ */
+class BoardTest {
+
+    private static final int[][] LINES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8}, // Rows
+            {0, 3, 6}, {1, 4, 7}, {2, 5, 8}, // Columns
+            {0, 4, 8}, {2, 4, 6},            // Diagonals
+    };
+
+    private static int[] cells(int key) {
+        int[] cells = new int[Board.CELLS];
+        for (int cell = 0, rest = key; cell < Board.CELLS; cell++, rest /= 3) {
+            cells[cell] = rest % 3;
+        }
+        return cells;
+    }
+
+    private static boolean hasLine(int[] cells, int player, int through) {
+        for (int[] line : LINES) {
+            boolean onLine = through < 0 || line[0] == through || line[1] == through || line[2] == through;
+            if (onLine && cells[line[0]] == player && cells[line[1]] == player && cells[line[2]] == player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasOpenLine(int[] cells) {
+        for (int[] line : LINES) {
+            boolean x = false;
+            boolean o = false;
+            for (int cell : line) {
+                x |= cells[cell] == Board.X;
+                o |= cells[cell] == Board.O;
+            }
+            if (!(x && o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The state table, win tests and open-line test agree with a scan for all 3^9 keys,
+     * including keys that cannot arise in play.
+     */
+    @Test
+    void tablesMatchAScanOfEveryLine() {
+        Board board = new Board();
+        for (int key = 0; key < Board.KEYS; key++) {
+            int[] cells = cells(key);
+            board.clear();
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                if (cells[cell] != Board.EMPTY) {
+                    board.place(cell, cells[cell]);
+                }
+            }
+            assertEquals(key, board.key());
+
+            boolean xWins = hasLine(cells, Board.X, -1);
+            boolean oWins = hasLine(cells, Board.O, -1);
+            boolean open = hasOpenLine(cells);
+            int expected = xWins ? Board.X_WON : oWins ? Board.O_WON : open ? Board.IN_PROGRESS : Board.DRAWN;
+            assertEquals(expected, Board.state(key), "state of key " + key);
+            assertEquals(expected, board.state(), "state of key " + key);
+            assertEquals(xWins, board.isWin(Board.X), "X wins in key " + key);
+            assertEquals(oWins, board.isWin(Board.O), "O wins in key " + key);
+            assertEquals(open, board.hasOpenLine(), "open line in key " + key);
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                boolean winning = cells[cell] != Board.EMPTY && hasLine(cells, cells[cell], cell);
+                assertEquals(winning, board.isWinningMove(cell / Board.COLS, cell % Board.COLS),
+                        "winning move at " + cell + " in key " + key);
+            }
+        }
+    }
+
+    /**
+     * Placing and taking back marks in any order leaves the same key and state as building
+     * the position from scratch.
+     */
+    @Test
+    void undoRestoresTheKey() {
+        Board board = new Board();
+        int[] order = {4, 0, 8, 2, 6, 3, 5, 7, 1};
+        int[] keys = new int[order.length + 1];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = board.key();
+            board.place(order[i], (i & 1) == 0 ? Board.X : Board.O);
+        }
+        keys[order.length] = board.key();
+        for (int i = order.length - 1; i >= 0; i--) {
+            board.undo(order[i]);
+            assertEquals(keys[i], board.key());
+            assertEquals(Board.state(keys[i]), board.state());
+        }
+    }
+}
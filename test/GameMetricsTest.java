@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that Game keeps the metrics right through play, undo and redo.
+ * Surefire starts the test JVM with -Dttt.metrics=true (see pom.xml).
+ */
+class GameMetricsTest {
+
+    private final GameMetrics metrics = GameMetrics.get();
+
+    @BeforeEach
+    void clearMetrics() {
+        assertTrue(GameMetrics.ENABLED, "Run with -Dttt.metrics=true");
+        metrics.reset();
+    }
+
+    /**
+     * Plays X to a win in the top row: X 1,1  O 2,1  X 1,2  O 2,2  X 1,3.
+     */
+    private static Game xWinsTopRow() {
+        Game game = new Game();
+        game.play(0, 0);
+        game.play(1, 0);
+        game.play(0, 1);
+        game.play(1, 1);
+        game.play(0, 2);
+        assertEquals(Game.Status.X_WINS, game.status());
+        return game;
+    }
+
+    @Test
+    void undoingTheWinningMoveTakesBackTheResult() {
+        Game game = xWinsTopRow();
+        for (int i = 0; i < 1000; i++) {
+            game.undo();
+            game.play(0, 2);
+        }
+        assertEquals(1, metrics.getGamesStarted());
+        assertEquals(1, metrics.getGamesCompleted());
+        assertEquals(1, metrics.getXWins());
+        assertEquals(5.0, metrics.getMeanMovesPerGame());
+    }
+
+    @Test
+    void redoCountsLikePlay() {
+        Game game = xWinsTopRow();
+        game.undo();
+        assertEquals(0, metrics.getGamesCompleted());
+        assertEquals(0, metrics.getXWins());
+        game.redo();
+        assertEquals(1, metrics.getGamesCompleted());
+        assertEquals(1, metrics.getXWins());
+    }
+
+    @Test
+    void undoingEveryMoveTakesBackTheStart() {
+        Game game = xWinsTopRow();
+        while (game.canUndo()) {
+            game.undo();
+        }
+        assertEquals(0, metrics.getGamesStarted());
+        assertEquals(0, metrics.getGamesCompleted());
+        while (game.canRedo()) {
+            game.redo();
+        }
+        assertEquals(1, metrics.getGamesStarted());
+        assertEquals(1, metrics.getGamesCompleted());
+        assertEquals(1, metrics.getXWins());
+    }
+
+    @Test
+    void undoInTheMiddleLeavesTheCountsAlone() {
+        Game game = new Game();
+        game.play(1, 1);
+        game.play(0, 0);
+        game.undo();
+        game.play(0, 1);
+        assertEquals(1, metrics.getGamesStarted());
+        assertEquals(0, metrics.getGamesCompleted());
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for GameRecordWriter and GameRecordReader.
+ */
+class GameRecordTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Plays X to a win in the top row: X 1,1  O 2,1  X 1,2  O 2,2  X 1,3.
+     */
+    private static Game xWinsTopRow() {
+        Game game = new Game();
+        game.play(0, 0);
+        game.play(1, 0);
+        game.play(0, 1);
+        game.play(1, 1);
+        game.play(0, 2);
+        return game;
+    }
+
+    private static void assertXWinsTopRow(GameRecordReader reader) {
+        assertTrue(reader.next());
+        assertEquals(Game.Status.X_WINS, reader.result());
+        assertEquals(Board.X, reader.startingPlayer());
+        assertEquals(5, reader.moveCount());
+        int[] cells = {0, 3, 1, 4, 2};
+        for (int i = 0; i < cells.length; i++) {
+            assertEquals(cells[i], reader.move(i));
+        }
+    }
+
+    /**
+     * A record cut short by a crash is dropped when the archive is next opened for writing,
+     * so the games appended after it can still be read.
+     */
+    @Test
+    void appendingDropsARecordCutShort() throws IOException {
+        Path file = dir.resolve("games.ttr");
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(xWinsTopRow());
+        }
+        // The header and first move byte of another five-move game, as if the write stopped there
+        Files.write(file, new byte[] {5, 0x30}, StandardOpenOption.APPEND);
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertXWinsTopRow(reader);
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(xWinsTopRow());
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertXWinsTopRow(reader);
+            assertXWinsTopRow(reader);
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Records with a move count, reserved bit or cell out of range are reported as corrupt
+     * rather than handed to the caller.
+     */
+    @Test
+    void rejectsCorruptRecords() throws IOException {
+        byte[][] records = {
+                {0x0F, 0, 0, 0, 0, 0, 0, 0, 0},    // 15 moves
+                {(byte) 0x81, 0},                   // Reserved bit set
+                {0x02, (byte) 0x90},                // Second move is cell 9
+        };
+        for (int i = 0; i < records.length; i++) {
+            Path file = dir.resolve("corrupt" + i + ".ttr");
+            new GameRecordWriter(file).close();
+            Files.write(file, records[i], StandardOpenOption.APPEND);
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                IllegalStateException e = assertThrows(IllegalStateException.class, reader::next);
+                assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that Game's incremental hash, board and status stay right through play, undo and redo.
+ */
+class GameTest {
+
+    /**
+     * Works out a game's hash from its board alone, as Zobrist defines it. The side key is
+     * taken from who would move next even once the game is over, when currentPlayer() stays
+     * on the player who made the last move.
+     */
+    private static long hashFromScratch(Game game) {
+        GameBoard board = game.board();
+        long[] keys = Zobrist.keys(board.rows() * board.cols());
+        int toMove = (game.turnCount() & 1) == 0 ? game.startingPlayer() : Board.opponent(game.startingPlayer());
+        long hash = toMove == Board.O ? keys[keys.length - 1] : 0;
+        for (int r = 0; r < board.rows(); r++) {
+            for (int c = 0; c < board.cols(); c++) {
+                int player = board.get(r, c);
+                if (player != Board.EMPTY) {
+                    hash ^= keys[(r * board.cols() + c) * 2 + player - 1];
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Plays the game's moves again on a fresh game and checks both games agree.
+     */
+    private static void assertMatchesReplay(Game game) {
+        GameBoard board = game.board();
+        Game replay = new Game(board.rows(), board.cols(), board.winLength());
+        replay.reset(game.startingPlayer());
+        for (int i = 0; i < game.turnCount(); i++) {
+            replay.play(game.move(i) / board.cols(), game.move(i) % board.cols());
+        }
+        assertEquals(replay.status(), game.status());
+        assertEquals(replay.currentPlayer(), game.currentPlayer());
+        assertEquals(replay.hash(), game.hash());
+        assertEquals(replay.board().hasOpenLine(), board.hasOpenLine());
+        for (int r = 0; r < board.rows(); r++) {
+            for (int c = 0; c < board.cols(); c++) {
+                assertEquals(replay.get(r, c), game.get(r, c));
+            }
+        }
+    }
+
+    /**
+     * Random play, undo, redo and reset steps, checking the hash against one worked out
+     * from scratch and the whole game against a replay of its moves after every step.
+     */
+    private static void randomSteps(int rows, int cols, int winLength, long seed) {
+        Game game = new Game(rows, cols, winLength);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int step = 0; step < 20_000; step++) {
+            int choice = random.nextInt(10);
+            if (choice == 0) {
+                game.reset(random.nextBoolean() ? Board.X : Board.O);
+            } else if (choice <= 2 && game.canUndo()) {
+                game.undo();
+            } else if (choice <= 4 && game.canRedo()) {
+                game.redo();
+            } else if (game.status() == Game.Status.IN_PROGRESS) {
+                int row;
+                int col;
+                do {
+                    row = random.nextInt(rows);
+                    col = random.nextInt(cols);
+                } while (!game.isValidMove(row, col));
+                game.play(row, col);
+            }
+            assertEquals(hashFromScratch(game), game.hash(), "hash after step " + step);
+            if (step % 16 == 0) {
+                assertMatchesReplay(game);
+            }
+        }
+    }
+
+    @Test
+    void classicGameStaysConsistent() {
+        randomSteps(Board.ROWS, Board.COLS, Board.WIN_LENGTH, 1);
+    }
+
+    @Test
+    void largerGameStaysConsistent() {
+        randomSteps(4, 5, 3, 2);
+    }
+
+    /**
+     * The same position reached by different move orders has the same hash, and the
+     * player to move is part of it.
+     */
+    @Test
+    void hashDependsOnPositionNotMoveOrder() {
+        Game a = new Game(5, 5, 4);
+        a.play(0, 0);
+        a.play(1, 1);
+        a.play(2, 2);
+        Game b = new Game(5, 5, 4);
+        b.play(2, 2);
+        b.play(1, 1);
+        b.play(0, 0);
+        assertEquals(a.hash(), b.hash());
+
+        Game c = new Game(5, 5, 4);
+        c.reset(Board.O);
+        c.play(1, 1);
+        assertNotEquals(0, c.hash());
+        assertNotEquals(a.hash(), c.hash());
+    }
+}
@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MctsPlayer.
+ */
+class MctsPlayerTest {
+
+    /**
+     * A tree too small to hold the root's children still searches and picks a legal move.
+     */
+    @Test
+    void tinyTreeStillChoosesALegalMove() {
+        MctsPlayer player = new MctsPlayer(200, 0, 1, 1);
+        Game game = new Game(4, 4, 3);
+        SplittableRandom random = new SplittableRandom(1);
+        while (game.status() == Game.Status.IN_PROGRESS) {
+            int cell = player.chooseMove(game, random);
+            assertTrue(game.isValidMove(cell / 4, cell % 4), "Illegal move " + cell);
+            game.play(cell / 4, cell % 4);
+        }
+        assertTrue(player.playouts() > 0);
+    }
+
+    /**
+     * The same holds for the parallel search, where every worker has its own tree.
+     */
+    @Test
+    void tinyTreeWithSeveralWorkers() {
+        MctsPlayer player = new MctsPlayer(400, 0, 2, 3);
+        Game game = new Game();
+        int cell = player.chooseMove(game, new SplittableRandom(2));
+        assertTrue(game.isValidMove(cell / Board.COLS, cell % Board.COLS), "Illegal move " + cell);
+    }
+}
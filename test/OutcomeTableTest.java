@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks OutcomeTable against a plain negamax over every reachable position.
+ */
+class OutcomeTableTest {
+
+    private static final int UNKNOWN = 2;
+
+    /**
+     * Solves a position by trying every move, remembering results by key.
+     *
+     * @return WIN, DRAW or LOSS for the player to move.
+     */
+    private static int negamax(Board board, int toMove, int[] solved) {
+        int key = board.key();
+        if (solved[key] != UNKNOWN) {
+            return solved[key];
+        }
+        int best;
+        if (board.isWin(Board.opponent(toMove))) {
+            best = OutcomeTable.LOSS;
+        } else if (board.isFull()) {
+            best = OutcomeTable.DRAW;
+        } else {
+            best = OutcomeTable.LOSS;
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                if (board.isEmpty(cell)) {
+                    board.place(cell, toMove);
+                    best = Math.max(best, -negamax(board, Board.opponent(toMove), solved));
+                    board.undo(cell);
+                }
+            }
+        }
+        solved[key] = best;
+        return best;
+    }
+
+    /**
+     * Symmetry reduction leaves the 765 well-known essentially different positions.
+     */
+    @Test
+    void has765CanonicalPositions() {
+        assertEquals(765, OutcomeTable.size());
+    }
+
+    /**
+     * The 5,478 legal positions are exactly the reachable ones, each has the negamax outcome,
+     * and every best move keeps that outcome.
+     */
+    @Test
+    void matchesNegamaxOnEveryReachablePosition() {
+        int[] solved = new int[Board.KEYS];
+        Arrays.fill(solved, UNKNOWN);
+        assertEquals(OutcomeTable.DRAW, negamax(new Board(), Board.X, solved));
+
+        Board board = new Board();
+        int reachable = 0;
+        for (int key = 0; key < Board.KEYS; key++) {
+            board.clear();
+            for (int cell = 0, rest = key; cell < Board.CELLS; cell++, rest /= 3) {
+                if (rest % 3 != Board.EMPTY) {
+                    board.place(cell, rest % 3);
+                }
+            }
+            assertEquals(solved[key] != UNKNOWN, OutcomeTable.isReachable(board), "reachable key " + key);
+            if (solved[key] == UNKNOWN) {
+                continue;
+            }
+            reachable++;
+            assertEquals(solved[key], OutcomeTable.outcome(board), "outcome of key " + key);
+
+            int toMove = board.playerToMove();
+            int moves = OutcomeTable.bestMoves(board);
+            boolean over = board.isWin(Board.X) || board.isWin(Board.O) || board.isFull();
+            assertEquals(over, moves == 0, "best moves of key " + key);
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                if ((moves & (1 << cell)) != 0) {
+                    assertTrue(board.isEmpty(cell));
+                    board.place(cell, toMove);
+                    assertEquals(solved[key], -solved[board.key()], "best move " + cell + " in key " + key);
+                    board.undo(cell);
+                }
+            }
+        }
+        assertEquals(5478, reachable);
+    }
+}
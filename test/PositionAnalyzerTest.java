@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for PositionAnalyzer.
+ */
+class PositionAnalyzerTest {
+
+    private static String analyze(InputStream input, int threads) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PositionAnalyzer(threads).analyze(input, out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static String analyze(String input) throws IOException {
+        return analyze(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), 1);
+    }
+
+    @Test
+    void analysesAndValidatesEachLine() throws IOException {
+        String result = analyze("X O  X   \n         \nXXX OO   \nXXXOOO   \nOO       \nX X\n X?      \r\nXO XO    ");
+        assertArrayEquals(new String[] {
+                "X O  X   \tO\tdraw\t2,1 2,2",
+                "         \tX\tdraw\t1,1 1,2 1,3 2,1 2,2 2,3 3,1 3,2 3,3",
+                "XXX OO   \t-\tX wins\t-",
+                "XXXOOO   \tinvalid\tplay went on after the game was won",
+                "OO       \tinvalid\tX must have as many marks as O, or one more",
+                "X X\tinvalid\texpected 9 cells",
+                " X?      \tinvalid\tcells must be ' ', 'X' or 'O'",
+                "XO XO    \tX\tX wins\t3,1",
+        }, result.split("\n"));
+    }
+
+    /**
+     * A line far longer than a chunk is skipped in a stream, not buffered, and the lines
+     * around it still come out in order.
+     */
+    @Test
+    void skipsHugeLinesWithoutBufferingThem() throws IOException {
+        long hugeLength = 50_000_000L;
+        InputStream input = new InputStream() {
+            private final byte[] before = "XO XO    \n".getBytes(StandardCharsets.US_ASCII);
+            private final byte[] after = "\n         \n".getBytes(StandardCharsets.US_ASCII);
+            private long position;
+
+            @Override
+            public int read() {
+                long p = position++;
+                if (p < before.length) {
+                    return before[(int) p];
+                }
+                p -= before.length;
+                if (p < hugeLength) {
+                    return 'X';
+                }
+                p -= hugeLength;
+                return p < after.length ? after[(int) p] : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                int n = 0;
+                int b;
+                while (n < length && (b = read()) >= 0) {
+                    buffer[offset + n++] = (byte) b;
+                }
+                return n == 0 && length > 0 ? -1 : n;
+            }
+        };
+        String[] lines = analyze(input, 2).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("XO XO    \tX\tX wins\t3,1", lines[0]);
+        assertEquals("X".repeat(64) + "...\tinvalid\tline too long", lines[1]);
+        assertEquals("         \tX\tdraw\t1,1 1,2 1,3 2,1 2,2 2,3 3,1 3,2 3,3", lines[2]);
+    }
+
+    /**
+     * Results do not depend on how many workers share the input.
+     */
+    @Test
+    void parallelOutputMatchesSequential() throws IOException {
+        StringBuilder input = new StringBuilder();
+        char[] marks = {' ', 'X', 'O'};
+        for (int key = 0; key < 200_000; key++) {
+            for (int cell = 0, rest = key % Board.KEYS; cell < Board.CELLS; cell++, rest /= 3) {
+                input.append(marks[rest % 3]);
+            }
+            input.append('\n');
+        }
+        byte[] bytes = input.toString().getBytes(StandardCharsets.US_ASCII);
+        assertEquals(analyze(new ByteArrayInputStream(bytes), 1), analyze(new ByteArrayInputStream(bytes), 4));
+    }
+
+    /**
+     * An analyser keeps its workers and buffers between calls, and each call starts afresh.
+     */
+    @Test
+    void analyserCanBeReused() throws IOException {
+        PositionAnalyzer analyzer = new PositionAnalyzer(2);
+        byte[] bytes = "X O  X   \nXXXOOO   \n".repeat(100_000).getBytes(StandardCharsets.US_ASCII);
+        String expected = analyze(new ByteArrayInputStream(bytes), 2);
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            analyzer.analyze(new ByteArrayInputStream(bytes), out);
+            assertEquals(expected, out.toString(StandardCharsets.US_ASCII));
+        }
+        assertEquals(600_000, analyzer.positions());
+        assertEquals(300_000, analyzer.invalid());
+    }
+}
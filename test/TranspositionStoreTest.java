@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for TranspositionStore.
+ */
+class TranspositionStoreTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Files that are not stores are rejected without being changed.
+     */
+    @Test
+    void rejectsFilesOfTheWrongSizeWithoutGrowingThem() throws IOException {
+        for (int size : new int[] {5, 64, 200, 64 + 64 * 3}) {
+            Path file = dir.resolve("bad" + size + ".tts");
+            Files.write(file, new byte[size]);
+            assertThrows(IOException.class, () -> new TranspositionStore(file, 4, 4, 3, 1024).close());
+            assertEquals(size, Files.size(file), "File of " + size + " bytes was changed");
+        }
+    }
+
+    /**
+     * Entries written to a store are there when the file is opened again.
+     */
+    @Test
+    void keepsEntriesAcrossRuns() throws IOException {
+        Path file = dir.resolve("store.tts");
+        try (TranspositionStore store = new TranspositionStore(file, 4, 4, 3, 1024)) {
+            store.store(0x1234_5678_9abc_def0L, -7, 5, 9, TranspositionStore.FLAG_EXACT);
+        }
+        try (TranspositionStore store = new TranspositionStore(file, 4, 4, 3, 1 << 20)) {
+            assertEquals(1024, store.capacity());
+            long entry = store.probe(0x1234_5678_9abc_def0L);
+            assertEquals(-7, TranspositionStore.value(entry));
+            assertEquals(5, TranspositionStore.move(entry));
+            assertEquals(9, TranspositionStore.depth(entry));
+            assertEquals(TranspositionStore.FLAG_EXACT, TranspositionStore.flag(entry));
+        }
+        assertThrows(IOException.class, () -> new TranspositionStore(file, 5, 5, 4, 1024).close());
+    }
+}